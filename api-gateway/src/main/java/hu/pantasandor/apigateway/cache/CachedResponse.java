@@ -0,0 +1,21 @@
+package hu.pantasandor.apigateway.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+import java.time.Duration;
+
+public record CachedResponse(HttpStatusCode statusCode, HttpHeaders headers, byte[] body, Duration timeToLive, long createdAt) {
+
+    public long ageSeconds() {
+        return Duration.ofNanos(System.nanoTime() - createdAt).toSeconds();
+    }
+
+    int weight() {
+        var headerBytes = headers.entrySet().stream()
+                .mapToInt(header -> header.getKey().length() + header.getValue().stream().mapToInt(String::length).sum())
+                .sum();
+        return body.length + headerBytes;
+    }
+
+}
@@ -0,0 +1,157 @@
+package hu.pantasandor.apigateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Cache of the upstream responses of one route, bounded by the total size of the cached responses.
+ * <p>
+ * Only {@code 200 OK} answers to {@code GET} requests are cached. An entry lives for the route's time to live, or
+ * shorter if the upstream {@code max-age} / {@code s-maxage} says so. Responses marked {@code no-store},
+ * {@code no-cache} or {@code private}, responses setting cookies and responses varying on headers that are not part
+ * of the cache key are never stored. Keys are hashed, so bearer tokens are not kept in memory.
+ */
+public class ResponseCache {
+
+    public static final String CACHE_NAME_PREFIX = "gateway.response-cache.";
+
+    private static final Set<String> UNCACHEABLE_DIRECTIVES = Set.of("no-store", "no-cache", "private");
+
+    private final Cache<String, CachedResponse> responses;
+    private final Duration timeToLive;
+    private final List<String> keyHeaders;
+    private final Set<String> lowerCaseKeyHeaders;
+
+    public ResponseCache(String routeId, Duration timeToLive, DataSize size, List<String> keyHeaders, MeterRegistry meterRegistry) {
+        this.timeToLive = timeToLive;
+        this.keyHeaders = List.copyOf(keyHeaders);
+        this.lowerCaseKeyHeaders = keyHeaders.stream().map(header -> header.toLowerCase(Locale.ROOT)).collect(Collectors.toUnmodifiableSet());
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(size.toBytes())
+                .weigher((String key, CachedResponse response) -> response.weight())
+                .expireAfter(new TimeToLiveExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, CACHE_NAME_PREFIX + routeId);
+    }
+
+    public static boolean isCacheable(ServerHttpRequest request) {
+        return HttpMethod.GET.equals(request.getMethod())
+                && !cacheControlDirectives(request.getHeaders()).contains("no-store");
+    }
+
+    /**
+     * Whether the client asked for a fresh response. Such requests skip the lookup but still refresh the entry.
+     */
+    public static boolean requiresRevalidation(ServerHttpRequest request) {
+        var directives = cacheControlDirectives(request.getHeaders());
+        return directives.contains("no-cache")
+                || directives.contains("max-age=0")
+                || request.getHeaders().getOrEmpty(HttpHeaders.PRAGMA).contains("no-cache");
+    }
+
+    public String key(ServerHttpRequest request) {
+        var digest = sha256();
+        digest.update(request.getURI().getRawPath().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '?');
+        digest.update(String.valueOf(request.getURI().getRawQuery()).getBytes(StandardCharsets.UTF_8));
+        for (var header : keyHeaders) {
+            digest.update((byte) 0);
+            digest.update(String.join(",", request.getHeaders().getOrEmpty(header)).getBytes(StandardCharsets.UTF_8));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public Optional<CachedResponse> get(String key) {
+        return Optional.ofNullable(responses.getIfPresent(key));
+    }
+
+    public boolean isCacheable(ServerHttpResponse response) {
+        var headers = response.getHeaders();
+        return HttpStatus.OK.equals(response.getStatusCode())
+                && !headers.containsKey(HttpHeaders.SET_COOKIE)
+                && cacheControlDirectives(headers).stream().noneMatch(UNCACHEABLE_DIRECTIVES::contains)
+                && headers.getVary().stream().allMatch(header -> lowerCaseKeyHeaders.contains(header.toLowerCase(Locale.ROOT)))
+                && !timeToLive(headers).isZero();
+    }
+
+    public void put(String key, HttpHeaders headers, byte[] body) {
+        headers.remove(HttpHeaders.TRANSFER_ENCODING);
+        headers.remove(HttpHeaders.CONNECTION);
+        responses.put(key, new CachedResponse(HttpStatus.OK, HttpHeaders.readOnlyHttpHeaders(headers), body,
+                timeToLive(headers), System.nanoTime()));
+    }
+
+    private Duration timeToLive(HttpHeaders headers) {
+        return cacheControlDirectives(headers).stream()
+                .filter(directive -> directive.startsWith("s-maxage=") || directive.startsWith("max-age="))
+                .map(directive -> parseSeconds(directive.substring(directive.indexOf('=') + 1)))
+                .min(Duration::compareTo)
+                .filter(upstream -> upstream.compareTo(timeToLive) < 0)
+                .orElse(timeToLive);
+    }
+
+    private static Duration parseSeconds(String seconds) {
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(seconds.replace("\"", ""))));
+        } catch (NumberFormatException e) {
+            return Duration.ZERO;
+        }
+    }
+
+    private static Set<String> cacheControlDirectives(HttpHeaders headers) {
+        return headers.getOrEmpty(HttpHeaders.CACHE_CONTROL).stream()
+                .flatMap(value -> StringUtils.commaDelimitedListToSet(value).stream())
+                .map(directive -> directive.trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class TimeToLiveExpiry implements Expiry<String, CachedResponse> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+            return response.timeToLive().toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedResponse response, long currentTime, long currentDuration) {
+            return response.timeToLive().toNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedResponse response, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+    }
+
+}
@@ -0,0 +1,176 @@
+package hu.pantasandor.apigateway.cache;
+
+import hu.pantasandor.apigateway.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caches upstream responses of a route at the edge, e.g. {@code ResponseCache=PT30S,16MB}. Conditional requests
+ * matching the {@code ETag} of a cached response are answered with {@code 304 Not Modified}.
+ * <p>
+ * Bodies are copied while they pass through, so streamed responses are not delayed. Bodies larger than
+ * {@code gateway.response-cache.max-entry-size} and responses written with flushes (NDJSON, SSE) are not cached.
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    private final ResponseCacheProperties responseCacheProperties;
+    private final MeterRegistry meterRegistry;
+    // route filters are rebuilt on every route refresh, the cached responses have to survive it
+    private final Map<String, ResponseCache> responseCaches = new ConcurrentHashMap<>();
+
+    public ResponseCacheGatewayFilterFactory(ResponseCacheProperties responseCacheProperties, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.responseCacheProperties = responseCacheProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("timeToLive", "size");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        var responseCache = responseCaches.computeIfAbsent(config.getRouteId(), routeId -> new ResponseCache(routeId,
+                Objects.requireNonNullElse(config.getTimeToLive(), responseCacheProperties.timeToLive()),
+                Objects.requireNonNullElse(config.getSize(), responseCacheProperties.size()),
+                responseCacheProperties.keyHeaders(),
+                meterRegistry));
+
+        // has to wrap the response before the write response filter captures it
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            var request = exchange.getRequest();
+            if (!ResponseCache.isCacheable(request)) {
+                return chain.filter(exchange);
+            }
+
+            var key = responseCache.key(request);
+            var cachedResponse = ResponseCache.requiresRevalidation(request) ? null : responseCache.get(key).orElse(null);
+            if (cachedResponse != null) {
+                return writeCachedResponse(exchange, cachedResponse);
+            }
+
+            var cachingResponse = new CachingResponseDecorator(exchange.getResponse(), responseCache, key,
+                    responseCacheProperties.maxEntrySize().toBytes());
+            return chain.filter(exchange.mutate().response(cachingResponse).build());
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private static Mono<Void> writeCachedResponse(ServerWebExchange exchange, CachedResponse cachedResponse) {
+        var response = exchange.getResponse();
+        var notModified = exchange.checkNotModified(cachedResponse.headers().getETag());
+        response.getHeaders().putAll(cachedResponse.headers());
+        response.getHeaders().set(HttpHeaders.AGE, String.valueOf(cachedResponse.ageSeconds()));
+        if (notModified) {
+            response.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+            response.getHeaders().remove(HttpHeaders.CONTENT_TYPE);
+            return response.setComplete();
+        }
+
+        response.setStatusCode(cachedResponse.statusCode());
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cachedResponse.body())));
+    }
+
+    private static class CachingResponseDecorator extends ServerHttpResponseDecorator {
+
+        private final ResponseCache responseCache;
+        private final String key;
+        private final long maxEntrySize;
+
+        CachingResponseDecorator(ServerHttpResponse delegate, ResponseCache responseCache, String key, long maxEntrySize) {
+            super(delegate);
+            this.responseCache = responseCache;
+            this.key = key;
+            this.maxEntrySize = maxEntrySize;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!responseCache.isCacheable(getDelegate())) {
+                return super.writeWith(body);
+            }
+
+            // taken before the commit, so headers added on the way out (security headers) are not cached
+            var upstreamHeaders = new HttpHeaders();
+            upstreamHeaders.addAll(getDelegate().getHeaders());
+            var capturedBody = new ByteArrayOutputStream();
+            var overflow = new AtomicBoolean();
+            return super.writeWith(Flux.from(body)
+                    .doOnNext(buffer -> {
+                        if (overflow.get() || capturedBody.size() + buffer.readableByteCount() > maxEntrySize) {
+                            overflow.set(true);
+                            return;
+                        }
+                        var readPosition = buffer.readPosition();
+                        var bytes = new byte[buffer.readableByteCount()];
+                        buffer.read(bytes);
+                        buffer.readPosition(readPosition);
+                        capturedBody.writeBytes(bytes);
+                    })
+                    .doOnComplete(() -> {
+                        if (!overflow.get()) {
+                            responseCache.put(key, upstreamHeaders, capturedBody.toByteArray());
+                        }
+                    }));
+        }
+
+    }
+
+    public static class Config implements HasRouteId {
+
+        private String routeId;
+        private Duration timeToLive;
+        private DataSize size;
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+
+        public DataSize getSize() {
+            return size;
+        }
+
+        public void setSize(DataSize size) {
+            this.size = size;
+        }
+
+    }
+
+}
@@ -0,0 +1,18 @@
+package hu.pantasandor.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @param cacheMaximumSize        number of verified tokens kept
+ * @param jwksRefreshInterval     period of the background reload of the JWK set
+ * @param jwksMinRefreshInterval  minimum time between reloads triggered by tokens signed with an unknown key
+ * @param jwksTimeout             timeout of fetching the JWK set, including the issuer discovery
+ */
+@ConfigurationProperties(prefix = "gateway.jwt")
+public record JwtProperties(long cacheMaximumSize,
+                            Duration jwksRefreshInterval,
+                            Duration jwksMinRefreshInterval,
+                            Duration jwksTimeout) {
+}
@@ -0,0 +1,27 @@
+package hu.pantasandor.apigateway.config;
+
+import hu.pantasandor.commons.loadbalancer.LatencyAwareLoadBalancerConfiguration;
+import hu.pantasandor.commons.loadbalancer.LatencyAwareLoadBalancerProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * The load balancer of the lb:// routes is chosen by {@code gateway.loadbalancer.strategy}: {@code round-robin}
+ * (the default of spring cloud) or {@code latency-aware}.
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "gateway.loadbalancer.strategy", havingValue = "latency-aware")
+    public LatencyAwareLoadBalancerProperties latencyAwareLoadBalancerProperties(Environment environment) {
+        return Binder.get(environment)
+                .bindOrCreate("gateway.loadbalancer.latency-aware", LatencyAwareLoadBalancerProperties.class);
+    }
+
+}
@@ -0,0 +1,25 @@
+package hu.pantasandor.apigateway.config;
+
+import hu.pantasandor.apigateway.ratelimit.InMemoryRateLimiter;
+import hu.pantasandor.apigateway.ratelimit.JwtClaimKeyResolver;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RateLimitConfig {
+
+    @Bean
+    public InMemoryRateLimiter inMemoryRateLimiter(ConfigurationService configurationService,
+                                                   RateLimitProperties rateLimitProperties,
+                                                   MeterRegistry meterRegistry) {
+        return new InMemoryRateLimiter(configurationService, rateLimitProperties, meterRegistry);
+    }
+
+    @Bean
+    public JwtClaimKeyResolver jwtClaimKeyResolver(RateLimitProperties rateLimitProperties) {
+        return new JwtClaimKeyResolver(rateLimitProperties.keyClaims());
+    }
+
+}
@@ -0,0 +1,26 @@
+package hu.pantasandor.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Defaults of the in-memory rate limiter. Routes may override the rates with
+ * {@code filters[n].args.in-memory-rate-limiter.*}.
+ *
+ * @param replenishRate   tokens added per second
+ * @param burstCapacity   tokens a bucket holds
+ * @param requestedTokens tokens a request takes
+ * @param keyClaims       JWT claims identifying the client, the first present one is used
+ * @param maximumKeys     number of clients tracked per gateway instance
+ * @param idleTimeout     time after which the bucket of an idle client is dropped
+ */
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public record RateLimitProperties(int replenishRate,
+                                  int burstCapacity,
+                                  int requestedTokens,
+                                  List<String> keyClaims,
+                                  long maximumKeys,
+                                  Duration idleTimeout) {
+}
@@ -0,0 +1,15 @@
+package hu.pantasandor.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Defaults of the {@code ResponseCache} route filter. Routes may override the time to live and the size.
+ */
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public record ResponseCacheProperties(Duration timeToLive, DataSize size, DataSize maxEntrySize,
+                                      List<String> keyHeaders) {
+}
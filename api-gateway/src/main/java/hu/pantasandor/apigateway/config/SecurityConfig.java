@@ -1,11 +1,20 @@
 package hu.pantasandor.apigateway.config;
 
+import hu.pantasandor.apigateway.security.CachingReactiveJwtDecoder;
+import hu.pantasandor.apigateway.security.JwkSetSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.security.oauth2.resource.OAuth2ResourceServerProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
 import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.client.WebClient;
 
 @Configuration
 @EnableWebFluxSecurity
@@ -22,4 +31,25 @@ public class SecurityConfig {
         return serverHttpSecurity.build();
     }
 
+    @Bean
+    public JwkSetSource jwkSetSource(WebClient.Builder webClientBuilder,
+                                     OAuth2ResourceServerProperties resourceServerProperties,
+                                     JwtProperties jwtProperties) {
+        var jwt = resourceServerProperties.getJwt();
+        return new JwkSetSource(webClientBuilder.build(), jwt.getIssuerUri(), jwt.getJwkSetUri(), jwtProperties);
+    }
+
+    @Bean
+    public ReactiveJwtDecoder jwtDecoder(JwkSetSource jwkSetSource,
+                                         OAuth2ResourceServerProperties resourceServerProperties,
+                                         JwtProperties jwtProperties,
+                                         MeterRegistry meterRegistry) {
+        var issuerUri = resourceServerProperties.getJwt().getIssuerUri();
+        var jwtDecoder = NimbusReactiveJwtDecoder.withJwkSource(jwkSetSource).build();
+        jwtDecoder.setJwtValidator(StringUtils.hasText(issuerUri)
+                ? JwtValidators.createDefaultWithIssuer(issuerUri)
+                : JwtValidators.createDefault());
+        return new CachingReactiveJwtDecoder(jwtDecoder, jwtProperties.cacheMaximumSize(), meterRegistry);
+    }
+
 }
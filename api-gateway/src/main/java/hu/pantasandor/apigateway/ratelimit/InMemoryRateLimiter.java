@@ -0,0 +1,126 @@
+package hu.pantasandor.apigateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import hu.pantasandor.apigateway.config.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rate limiter of the {@code RequestRateLimiter} filter keeping one {@link TokenBucket} per route and client in
+ * memory, so the limits apply per gateway instance. Rejected requests get a {@code Retry-After} header and are
+ * counted by {@code gateway.rate-limit.rejected}.
+ */
+public class InMemoryRateLimiter extends AbstractRateLimiter<InMemoryRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "in-memory-rate-limiter";
+    public static final String CACHE_NAME = "gateway.rate-limit.buckets";
+
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    public static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+
+    private final Config defaultConfig;
+    private final Cache<BucketKey, TokenBucket> buckets;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> rejectedCounters = new ConcurrentHashMap<>();
+
+    public InMemoryRateLimiter(ConfigurationService configurationService,
+                               RateLimitProperties rateLimitProperties,
+                               MeterRegistry meterRegistry) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.defaultConfig = new Config()
+                .setReplenishRate(rateLimitProperties.replenishRate())
+                .setBurstCapacity(rateLimitProperties.burstCapacity())
+                .setRequestedTokens(rateLimitProperties.requestedTokens());
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(rateLimitProperties.maximumKeys())
+                .expireAfterAccess(rateLimitProperties.idleTimeout())
+                .recordStats()
+                .build();
+        this.meterRegistry = meterRegistry;
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, CACHE_NAME);
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        var config = getConfig().getOrDefault(routeId, defaultConfig);
+        var bucket = buckets.get(new BucketKey(routeId, id), key -> new TokenBucket());
+        var acquisition = bucket.tryAcquire(config.emissionInterval(), config.getBurstCapacity(),
+                config.getRequestedTokens(), System.nanoTime());
+
+        var headers = Map.of(
+                REMAINING_HEADER, String.valueOf(acquisition.tokensRemaining()),
+                REPLENISH_RATE_HEADER, String.valueOf(config.getReplenishRate()),
+                BURST_CAPACITY_HEADER, String.valueOf(config.getBurstCapacity()));
+        if (acquisition.acquired()) {
+            return Mono.just(new Response(true, headers));
+        }
+
+        rejectedCounter(routeId).increment();
+        var retryAfterSeconds = Math.max(1, (acquisition.retryAfterNanos() + 999_999_999) / 1_000_000_000);
+        var rejectedHeaders = new HashMap<>(headers);
+        rejectedHeaders.put(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return Mono.just(new Response(false, rejectedHeaders));
+    }
+
+    private Counter rejectedCounter(String routeId) {
+        return rejectedCounters.computeIfAbsent(routeId, route -> Counter.builder("gateway.rate-limit.rejected")
+                .description("Requests rejected by the rate limiter")
+                .tag("route", route)
+                .register(meterRegistry));
+    }
+
+    private record BucketKey(String routeId, String id) {
+    }
+
+    public static class Config {
+
+        private int replenishRate;
+        private int burstCapacity;
+        private int requestedTokens = 1;
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public Config setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+            return this;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public Config setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+            return this;
+        }
+
+        public int getRequestedTokens() {
+            return requestedTokens;
+        }
+
+        public Config setRequestedTokens(int requestedTokens) {
+            this.requestedTokens = requestedTokens;
+            return this;
+        }
+
+        long emissionInterval() {
+            return Duration.ofSeconds(1).toNanos() / Math.max(1, replenishRate);
+        }
+
+    }
+
+}
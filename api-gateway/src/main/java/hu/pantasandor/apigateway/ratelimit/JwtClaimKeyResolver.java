@@ -0,0 +1,39 @@
+package hu.pantasandor.apigateway.ratelimit;
+
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Identifies the client by the first present of the given JWT claims, e.g. the subject or the client id.
+ * Requests without a JWT are identified by the name of their principal.
+ */
+public class JwtClaimKeyResolver implements KeyResolver {
+
+    private final List<String> claims;
+
+    public JwtClaimKeyResolver(List<String> claims) {
+        this.claims = List.copyOf(claims);
+    }
+
+    @Override
+    public Mono<String> resolve(ServerWebExchange exchange) {
+        return exchange.getPrincipal().mapNotNull(principal -> {
+            if (!(principal instanceof JwtAuthenticationToken authentication)) {
+                return principal.getName();
+            }
+
+            var jwt = authentication.getToken();
+            return claims.stream()
+                    .map(jwt::getClaimAsString)
+                    .filter(Objects::nonNull)
+                    .findFirst()
+                    .orElse(null);
+        });
+    }
+
+}
@@ -0,0 +1,38 @@
+package hu.pantasandor.apigateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in its generic cell rate algorithm form: the whole state is the theoretical time at
+ * which the bucket is full again, updated with a single compare-and-set.
+ */
+class TokenBucket {
+
+    private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * @param emissionInterval nanoseconds it takes to replenish one token
+     * @param burstCapacity    number of tokens the bucket holds
+     * @param requestedTokens  number of tokens to take
+     * @param now              current {@link System#nanoTime()}
+     */
+    Acquisition tryAcquire(long emissionInterval, long burstCapacity, long requestedTokens, long now) {
+        var tolerance = emissionInterval * burstCapacity;
+        while (true) {
+            var current = fullAt.get();
+            var next = Math.max(current, now) + emissionInterval * requestedTokens;
+            var debt = next - now;
+            if (debt > tolerance) {
+                var remaining = Math.max(0, (tolerance - (Math.max(current, now) - now)) / emissionInterval);
+                return new Acquisition(false, remaining, debt - tolerance);
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return new Acquisition(true, (tolerance - debt) / emissionInterval, 0);
+            }
+        }
+    }
+
+    record Acquisition(boolean acquired, long tokensRemaining, long retryAfterNanos) {
+    }
+
+}
@@ -0,0 +1,145 @@
+package hu.pantasandor.apigateway.security;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jwt.SignedJWT;
+import hu.pantasandor.apigateway.config.JwtProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.text.ParseException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * JWK set of the issuer, loaded before the gateway accepts requests and reloaded in the background, so no request
+ * waits for the keys. A token signed with an unknown key triggers a reload, at most once per
+ * {@code gateway.jwt.jwks-min-refresh-interval}. Concurrent reloads share one fetch.
+ */
+@Slf4j
+public class JwkSetSource implements Function<SignedJWT, Flux<JWK>>, SmartLifecycle {
+
+    private static final String DISCOVERY_PATH = "/.well-known/openid-configuration";
+
+    private final WebClient webClient;
+    private final String issuerUri;
+    private final JwtProperties jwtProperties;
+    private final AtomicReference<JWKSet> jwkSet = new AtomicReference<>(new JWKSet());
+    private final AtomicReference<Mono<JWKSet>> pendingRefresh = new AtomicReference<>();
+    private final AtomicLong lastRefresh = new AtomicLong(System.nanoTime());
+    private volatile String jwkSetUri;
+    private Disposable scheduledRefresh;
+
+    public JwkSetSource(WebClient webClient, String issuerUri, String jwkSetUri, JwtProperties jwtProperties) {
+        if (!StringUtils.hasText(issuerUri) && !StringUtils.hasText(jwkSetUri)) {
+            throw new IllegalArgumentException("either the issuer uri or the jwk set uri is required");
+        }
+        this.webClient = webClient;
+        this.issuerUri = issuerUri;
+        this.jwkSetUri = StringUtils.hasText(jwkSetUri) ? jwkSetUri : null;
+        this.jwtProperties = jwtProperties;
+    }
+
+    @Override
+    public Flux<JWK> apply(SignedJWT jwt) {
+        var selector = new JWKSelector(JWKMatcher.forJWSHeader(jwt.getHeader()));
+        var keys = selector.select(jwkSet.get());
+        if (!keys.isEmpty()) {
+            return Flux.fromIterable(keys);
+        }
+
+        var sinceLastRefresh = System.nanoTime() - lastRefresh.get();
+        if (sinceLastRefresh < jwtProperties.jwksMinRefreshInterval().toNanos() && !jwkSet.get().isEmpty()) {
+            return Flux.empty();
+        }
+        return refresh().flatMapIterable(selector::select);
+    }
+
+    @Override
+    public void start() {
+        try {
+            var keys = refresh().block(jwtProperties.jwksTimeout());
+            log.info("loaded {} keys from {}", keys == null ? 0 : keys.size(), jwkSetUri);
+        } catch (RuntimeException e) {
+            log.warn("could not load the jwk set, it is loaded on the first request", e);
+        }
+
+        var interval = jwtProperties.jwksRefreshInterval();
+        scheduledRefresh = Flux.interval(interval, interval)
+                .concatMap(tick -> refresh().onErrorResume(e -> {
+                    log.warn("could not reload the jwk set, keeping {} keys", jwkSet.get().size(), e);
+                    return Mono.empty();
+                }))
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        scheduledRefresh.dispose();
+        scheduledRefresh = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduledRefresh != null;
+    }
+
+    @Override
+    public int getPhase() {
+        // before the web server starts accepting requests
+        return 0;
+    }
+
+    private Mono<JWKSet> refresh() {
+        return Mono.defer(() -> {
+            var refresh = fetch()
+                    .doFinally(signal -> pendingRefresh.set(null))
+                    .cache();
+            var pending = pendingRefresh.compareAndExchange(null, refresh);
+            return pending != null ? pending : refresh;
+        });
+    }
+
+    private Mono<JWKSet> fetch() {
+        return Mono.defer(() -> {
+                    lastRefresh.set(System.nanoTime());
+                    return resolveJwkSetUri();
+                })
+                .flatMap(uri -> webClient.get().uri(uri).retrieve().bodyToMono(String.class))
+                .map(JwkSetSource::parse)
+                .timeout(jwtProperties.jwksTimeout())
+                .doOnNext(jwkSet::set);
+    }
+
+    private Mono<String> resolveJwkSetUri() {
+        if (jwkSetUri != null) {
+            return Mono.just(jwkSetUri);
+        }
+
+        return webClient.get().uri(issuerUri + DISCOVERY_PATH)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {
+                })
+                .map(configuration -> (String) configuration.get("jwks_uri"))
+                .doOnNext(uri -> jwkSetUri = uri);
+    }
+
+    private static JWKSet parse(String body) {
+        try {
+            return JWKSet.parse(body);
+        } catch (ParseException e) {
+            throw new IllegalStateException("invalid jwk set", e);
+        }
+    }
+
+}
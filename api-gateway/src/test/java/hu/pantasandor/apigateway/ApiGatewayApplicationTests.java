@@ -0,0 +1,265 @@
+package hu.pantasandor.apigateway;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import hu.pantasandor.apigateway.cache.ResponseCache;
+import hu.pantasandor.apigateway.security.CachingReactiveJwtDecoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the gateway against an issuer stub publishing the JWK set of a generated key, and an upstream stub standing
+ * in for the product-service.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "eureka.client.enabled=false")
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class ApiGatewayApplicationTests {
+
+    public static final String PRODUCT_URL = "/api/v1/product";
+    public static final String PRODUCT_BODY = "[{\"id\":\"1\",\"name\":\"product\"}]";
+    public static final String PRODUCT_ETAG = "\"product-v1\"";
+    public static final String PRODUCT_ROUTE_ID = "product-service";
+
+    private static final String DISCOVERY_PATH = "/.well-known/openid-configuration";
+    private static final String JWKS_PATH = "/certs";
+
+    private static RSAKey issuerKey;
+    private static HttpServer issuer;
+    private static HttpServer upstream;
+    private static final AtomicInteger upstreamRequests = new AtomicInteger();
+
+    private final MeterRegistry meterRegistry;
+    private final WebTestClient webClient;
+
+    @BeforeAll
+    static void beforeAll() throws IOException, JOSEException {
+        issuerKey = new RSAKeyGenerator(2048).keyID(UUID.randomUUID().toString()).generate();
+        issuer = start(ApiGatewayApplicationTests::handleIssuer);
+        upstream = start(ApiGatewayApplicationTests::handleUpstream);
+    }
+
+    @AfterAll
+    static void afterAll() {
+        issuer.stop(0);
+        upstream.stop(0);
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.security.oauth2.resourceserver.jwt.issuer-uri", ApiGatewayApplicationTests::issuerUri);
+        // the route list is bound from a single source, so the product route is repeated with the upstream stub
+        registry.add("spring.cloud.gateway.routes[0].id", () -> PRODUCT_ROUTE_ID);
+        registry.add("spring.cloud.gateway.routes[0].uri", () -> "http://localhost:" + upstream.getAddress().getPort());
+        registry.add("spring.cloud.gateway.routes[0].predicates[0]", () -> "Path=/api/v*/product,/api/v*/product/**");
+        registry.add("spring.cloud.gateway.routes[0].filters[0]", () -> "ResponseCache=PT30S,16MB");
+        registry.add("spring.cloud.gateway.routes[0].filters[1].name", () -> "RequestRateLimiter");
+        registry.add("spring.cloud.gateway.routes[0].filters[1].args.in-memory-rate-limiter.replenish-rate", () -> "100");
+        registry.add("spring.cloud.gateway.routes[0].filters[1].args.in-memory-rate-limiter.burst-capacity", () -> "200");
+    }
+
+    @BeforeEach
+    void setUp() {
+        upstreamRequests.set(0);
+    }
+
+    @Test
+    @DisplayName("Should verify a token once and answer its later requests from the token cache")
+    void shouldCacheVerifiedTokens() throws JOSEException {
+        var token = token(issuerKey);
+        var hits = jwtCacheHits();
+
+        getProduct(token, "jwt-cache").expectStatus().isOk();
+        assertEquals(hits, jwtCacheHits());
+
+        getProduct(token, "jwt-cache").expectStatus().isOk();
+        getProduct(token, "jwt-cache").expectStatus().isOk();
+        assertEquals(hits + 2, jwtCacheHits());
+    }
+
+    @Test
+    @DisplayName("Should reject a token signed with an unknown key and not cache it")
+    void shouldRejectTokensOfUnknownKeys() throws JOSEException {
+        var token = token(new RSAKeyGenerator(2048).keyID(UUID.randomUUID().toString()).generate());
+        var hits = jwtCacheHits();
+
+        getProduct(token, "unknown-key").expectStatus().isUnauthorized();
+        getProduct(token, "unknown-key").expectStatus().isUnauthorized();
+
+        assertEquals(hits, jwtCacheHits());
+        assertEquals(0, upstreamRequests.get());
+    }
+
+    @Test
+    @DisplayName("Should answer a repeated request from the response cache")
+    void shouldAnswerFromTheResponseCache() throws JOSEException {
+        var token = token(issuerKey);
+        var hits = responseCacheHits();
+
+        getProduct(token, "response-cache")
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo(PRODUCT_BODY);
+        getProduct(token, "response-cache")
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.AGE)
+                .expectHeader().valueEquals(HttpHeaders.ETAG, PRODUCT_ETAG)
+                .expectBody(String.class).isEqualTo(PRODUCT_BODY);
+
+        assertEquals(1, upstreamRequests.get());
+        assertEquals(hits + 1, responseCacheHits());
+    }
+
+    @Test
+    @DisplayName("Should answer not modified to a request matching the ETag of the cached response")
+    void shouldAnswerNotModified() throws JOSEException {
+        var token = token(issuerKey);
+        getProduct(token, "not-modified").expectStatus().isOk();
+
+        webClient.get()
+                .uri(uriBuilder -> uriBuilder.path(PRODUCT_URL).queryParam("test", "not-modified").build())
+                .headers(headers -> headers.setBearerAuth(token))
+                .header(HttpHeaders.IF_NONE_MATCH, PRODUCT_ETAG)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+
+        assertEquals(1, upstreamRequests.get());
+    }
+
+    @Test
+    @DisplayName("Should pass a request asking for a fresh response to the upstream")
+    void shouldRevalidateOnNoCache() throws JOSEException {
+        var token = token(issuerKey);
+        getProduct(token, "no-cache").expectStatus().isOk();
+
+        webClient.get()
+                .uri(uriBuilder -> uriBuilder.path(PRODUCT_URL).queryParam("test", "no-cache").build())
+                .headers(headers -> headers.setBearerAuth(token))
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().value(HttpHeaders.ETAG, equalTo(PRODUCT_ETAG));
+
+        assertEquals(2, upstreamRequests.get());
+    }
+
+    private WebTestClient.ResponseSpec getProduct(String token, String test) {
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder.path(PRODUCT_URL).queryParam("test", test).build())
+                .headers(headers -> headers.setBearerAuth(token))
+                .exchange();
+    }
+
+    private double jwtCacheHits() {
+        return cacheHits(CachingReactiveJwtDecoder.CACHE_NAME);
+    }
+
+    private double responseCacheHits() {
+        return cacheHits(ResponseCache.CACHE_NAME_PREFIX + PRODUCT_ROUTE_ID);
+    }
+
+    private double cacheHits(String cacheName) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", cacheName)
+                .tag("result", "hit")
+                .functionCounter()
+                .count();
+    }
+
+    private static String token(RSAKey signingKey) throws JOSEException {
+        var now = Instant.now();
+        var claims = new JWTClaimsSet.Builder()
+                .issuer(issuerUri())
+                .subject("client-1")
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(Duration.ofHours(1))))
+                .jwtID(UUID.randomUUID().toString())
+                .build();
+        var jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(signingKey.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(signingKey));
+        return jwt.serialize();
+    }
+
+    private static String issuerUri() {
+        return "http://localhost:" + issuer.getAddress().getPort();
+    }
+
+    private static HttpServer start(ExchangeHandler handler) throws IOException {
+        var server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            try (exchange) {
+                handler.handle(exchange);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static void handleIssuer(HttpExchange exchange) throws IOException {
+        var path = exchange.getRequestURI().getPath();
+        if (path.equals(DISCOVERY_PATH)) {
+            send(exchange, "{\"issuer\":\"" + issuerUri() + "\",\"jwks_uri\":\"" + issuerUri() + JWKS_PATH + "\"}");
+        } else if (path.equals(JWKS_PATH)) {
+            send(exchange, new JWKSet(issuerKey.toPublicJWK()).toString());
+        } else {
+            exchange.sendResponseHeaders(404, -1);
+        }
+    }
+
+    private static void handleUpstream(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestURI().getPath().equals(PRODUCT_URL)) {
+            exchange.sendResponseHeaders(404, -1);
+            return;
+        }
+        upstreamRequests.incrementAndGet();
+        exchange.getResponseHeaders().set(HttpHeaders.ETAG, PRODUCT_ETAG);
+        send(exchange, PRODUCT_BODY);
+    }
+
+    private static void send(HttpExchange exchange, String body) throws IOException {
+        var bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    @FunctionalInterface
+    private interface ExchangeHandler {
+
+        void handle(HttpExchange exchange) throws IOException;
+
+    }
+
+}
@@ -0,0 +1,91 @@
+package hu.pantasandor.apigateway.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TokenBucketTests {
+
+    private static final long EMISSION_INTERVAL = 100;
+    private static final long BURST_CAPACITY = 10;
+    private static final long NOW = 1_000_000;
+
+    private final TokenBucket tokenBucket = new TokenBucket();
+
+    @Test
+    @DisplayName("Should grant a full burst at once and reject the next request")
+    void shouldGrantAFullBurst() {
+        for (long remaining = BURST_CAPACITY - 1; remaining >= 0; remaining--) {
+            var acquisition = tryAcquire(1, NOW);
+            assertTrue(acquisition.acquired());
+            assertEquals(remaining, acquisition.tokensRemaining());
+        }
+
+        var rejected = tryAcquire(1, NOW);
+        assertFalse(rejected.acquired());
+        assertEquals(0, rejected.tokensRemaining());
+    }
+
+    @Test
+    @DisplayName("Should refill one token per emission interval")
+    void shouldRefillTokens() {
+        drain();
+
+        var later = NOW + 2 * EMISSION_INTERVAL + EMISSION_INTERVAL / 2;
+        assertTrue(tryAcquire(1, later).acquired());
+        assertTrue(tryAcquire(1, later).acquired());
+        assertFalse(tryAcquire(1, later).acquired());
+    }
+
+    @Test
+    @DisplayName("Should tell how long until the rejected tokens are available")
+    void shouldTellWhenToRetry() {
+        drain();
+
+        var rejected = tryAcquire(2, NOW);
+        assertFalse(rejected.acquired());
+        assertEquals(2 * EMISSION_INTERVAL, rejected.retryAfterNanos());
+
+        assertFalse(tryAcquire(2, NOW + rejected.retryAfterNanos() - 1).acquired());
+        assertTrue(tryAcquire(2, NOW + rejected.retryAfterNanos()).acquired());
+    }
+
+    @Test
+    @DisplayName("Should not take tokens for a rejected request")
+    void shouldNotTakeTokensForARejectedRequest() {
+        for (int i = 0; i < BURST_CAPACITY - 2; i++) {
+            tryAcquire(1, NOW);
+        }
+
+        var rejected = tryAcquire(3, NOW);
+        assertFalse(rejected.acquired());
+        assertEquals(2, rejected.tokensRemaining());
+        assertEquals(EMISSION_INTERVAL, rejected.retryAfterNanos());
+
+        assertTrue(tryAcquire(2, NOW).acquired());
+    }
+
+    @Test
+    @DisplayName("Should not save up more tokens than the burst capacity")
+    void shouldNotExceedTheBurstCapacity() {
+        drain();
+
+        var idle = NOW + 100 * BURST_CAPACITY * EMISSION_INTERVAL;
+
+        assertEquals(BURST_CAPACITY - 1, tryAcquire(1, idle).tokensRemaining());
+    }
+
+    private void drain() {
+        for (int i = 0; i < BURST_CAPACITY; i++) {
+            assertTrue(tryAcquire(1, NOW).acquired());
+        }
+    }
+
+    private TokenBucket.Acquisition tryAcquire(long requestedTokens, long now) {
+        return tokenBucket.tryAcquire(EMISSION_INTERVAL, BURST_CAPACITY, requestedTokens, now);
+    }
+
+}
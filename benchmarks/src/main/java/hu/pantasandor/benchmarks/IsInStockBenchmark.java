@@ -0,0 +1,73 @@
+package hu.pantasandor.benchmarks;
+
+import hu.pantasandor.inventoryservice.InventoryServiceApplication;
+import hu.pantasandor.inventoryservice.model.Inventory;
+import hu.pantasandor.inventoryservice.repository.InventoryRepository;
+import hu.pantasandor.inventoryservice.service.InventoryService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * {@link InventoryService#isInStock(List)} against the flyway-migrated schema in an embedded H2 database, with and
+ * without the stock index in front of it. The application is started from {@code inventory-benchmark.properties}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class IsInStockBenchmark {
+
+    private static final int INVENTORIES = 10_000;
+
+    @Param({"1", "10", "100"})
+    private int skuCodes;
+
+    @Param({"true", "false"})
+    private boolean stockIndex;
+
+    private ConfigurableApplicationContext context;
+    private InventoryService inventoryService;
+    private List<String> skuCodeList;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(InventoryServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.config.name=inventory-benchmark", "inventory.stock-index.enabled=" + stockIndex)
+                .run();
+        inventoryService = context.getBean(InventoryService.class);
+
+        context.getBean(InventoryRepository.class).saveAll(IntStream.range(0, INVENTORIES)
+                .mapToObj(i -> new Inventory(null, skuCode(i), i % 10))
+                .toList());
+
+        var random = new Random(42);
+        skuCodeList = random.ints(skuCodes, 0, INVENTORIES)
+                .mapToObj(IsInStockBenchmark::skuCode)
+                .toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Inventory> isInStock() {
+        return inventoryService.isInStock(skuCodeList);
+    }
+
+    private static String skuCode(int i) {
+        return "SKU-%05d".formatted(i);
+    }
+
+}
@@ -0,0 +1,101 @@
+package hu.pantasandor.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import hu.pantasandor.inventoryservice.dto.InventoryResponse;
+import hu.pantasandor.orderservice.dto.OrderLineItemDto;
+import hu.pantasandor.orderservice.dto.OrderRequest;
+import hu.pantasandor.productservice.dto.ProductResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Jackson (de)serialization of the request and response bodies, with an object mapper set up the way Spring Boot
+ * sets up its own.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+
+    @Param({"1", "10"})
+    private int lineItems;
+
+    private ObjectWriter orderRequestWriter;
+    private ObjectReader orderRequestReader;
+    private ObjectWriter inventoryResponsesWriter;
+    private ObjectReader inventoryResponsesReader;
+    private ObjectWriter productResponseWriter;
+    private ObjectReader productResponseReader;
+
+    private OrderRequest orderRequest;
+    private byte[] orderRequestJson;
+    private InventoryResponse[] inventoryResponses;
+    private byte[] inventoryResponsesJson;
+    private ProductResponse productResponse;
+    private byte[] productResponseJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        orderRequestWriter = objectMapper.writerFor(OrderRequest.class);
+        orderRequestReader = objectMapper.readerFor(OrderRequest.class);
+        inventoryResponsesWriter = objectMapper.writerFor(InventoryResponse[].class);
+        inventoryResponsesReader = objectMapper.readerFor(InventoryResponse[].class);
+        productResponseWriter = objectMapper.writerFor(ProductResponse.class);
+        productResponseReader = objectMapper.readerFor(ProductResponse.class);
+
+        orderRequest = new OrderRequest(IntStream.range(0, lineItems)
+                .mapToObj(i -> new OrderLineItemDto(null, "SKU-" + i, new BigDecimal("19.99"), i + 1))
+                .toList());
+        orderRequestJson = orderRequestWriter.writeValueAsBytes(orderRequest);
+
+        inventoryResponses = IntStream.range(0, lineItems)
+                .mapToObj(i -> new InventoryResponse("SKU-" + i, i % 2 == 0))
+                .toArray(InventoryResponse[]::new);
+        inventoryResponsesJson = inventoryResponsesWriter.writeValueAsBytes(inventoryResponses);
+
+        productResponse = new ProductResponse("650c1f1e8d3b2a6f4c9e0d1a", "iPhone 15", "Apple iPhone 15 128GB", new BigDecimal("999.00"));
+        productResponseJson = productResponseWriter.writeValueAsBytes(productResponse);
+    }
+
+    @Benchmark
+    public byte[] serializeOrderRequest() throws IOException {
+        return orderRequestWriter.writeValueAsBytes(orderRequest);
+    }
+
+    @Benchmark
+    public OrderRequest deserializeOrderRequest() throws IOException {
+        return orderRequestReader.readValue(orderRequestJson);
+    }
+
+    @Benchmark
+    public byte[] serializeInventoryResponses() throws IOException {
+        return inventoryResponsesWriter.writeValueAsBytes(inventoryResponses);
+    }
+
+    @Benchmark
+    public InventoryResponse[] deserializeInventoryResponses() throws IOException {
+        return inventoryResponsesReader.readValue(inventoryResponsesJson);
+    }
+
+    @Benchmark
+    public byte[] serializeProductResponse() throws IOException {
+        return productResponseWriter.writeValueAsBytes(productResponse);
+    }
+
+    @Benchmark
+    public ProductResponse deserializeProductResponse() throws IOException {
+        return productResponseReader.readValue(productResponseJson);
+    }
+
+}
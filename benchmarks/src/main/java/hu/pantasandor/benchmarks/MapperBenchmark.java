@@ -0,0 +1,59 @@
+package hu.pantasandor.benchmarks;
+
+import hu.pantasandor.inventoryservice.dto.InventoryResponse;
+import hu.pantasandor.inventoryservice.mapper.InventoryMapper;
+import hu.pantasandor.inventoryservice.model.Inventory;
+import hu.pantasandor.orderservice.dto.OrderLineItemDto;
+import hu.pantasandor.orderservice.mapper.OrderLineItemMapper;
+import hu.pantasandor.orderservice.model.OrderLineItem;
+import hu.pantasandor.productservice.dto.ProductResponse;
+import hu.pantasandor.productservice.mapper.ProductMapper;
+import hu.pantasandor.productservice.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The MapStruct mappers every request goes through.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    private Inventory inventory;
+    private Product product;
+    private OrderLineItemDto orderLineItemDto;
+
+    @Setup
+    public void setUp() {
+        inventory = new Inventory(1L, "AAA111", 10);
+        product = Product.builder()
+                .id("650c1f1e8d3b2a6f4c9e0d1a")
+                .name("iPhone 15")
+                .description("Apple iPhone 15 128GB")
+                .price(new BigDecimal("999.00"))
+                .build();
+        orderLineItemDto = new OrderLineItemDto(null, "AAA111", new BigDecimal("999.00"), 2);
+    }
+
+    @Benchmark
+    public InventoryResponse inventoryMapper() {
+        return InventoryMapper.INSTANCE.doMap(inventory);
+    }
+
+    @Benchmark
+    public ProductResponse productMapper() {
+        return ProductMapper.INSTANCE.doMap(product);
+    }
+
+    @Benchmark
+    public OrderLineItem orderLineItemMapper() {
+        return OrderLineItemMapper.INSTANCE.doMap(orderLineItemDto);
+    }
+
+}
@@ -0,0 +1,131 @@
+package hu.pantasandor.benchmarks;
+
+import hu.pantasandor.orderservice.client.InventoryClient;
+import hu.pantasandor.orderservice.client.InventoryResilience;
+import hu.pantasandor.orderservice.config.InventoryBatchProperties;
+import hu.pantasandor.orderservice.config.InventoryResilienceProperties;
+import hu.pantasandor.orderservice.config.OrderHistoryProperties;
+import hu.pantasandor.orderservice.config.WriteBehindProperties;
+import hu.pantasandor.orderservice.dto.InventoryResponse;
+import hu.pantasandor.orderservice.dto.OrderLineItemDto;
+import hu.pantasandor.orderservice.dto.OrderRequest;
+import hu.pantasandor.orderservice.model.Order;
+import hu.pantasandor.orderservice.monitoring.OrderMetrics;
+import hu.pantasandor.orderservice.service.OrderHistoryProjector;
+import hu.pantasandor.orderservice.service.OrderService;
+import hu.pantasandor.orderservice.service.OrderWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+/**
+ * The order-service side of placing an order and of an availability check: building the inventory requests,
+ * decoding the answers and running the reactive pipeline. inventory-service is answered in memory by the exchange
+ * function of the web client and orders are not written to a database, so only the work done in order-service is
+ * measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class PlaceOrderBenchmark {
+
+    private static final String RESERVATION_JSON = "{\"reservationNumber\":\"5b0c8a4e-3f1d-4e8b-9a7c-2d6e1f0b9c3a\",\"expiresAt\":\"2030-01-01T00:00:00Z\"}";
+
+    @Param({"1", "10"})
+    private int lineItems;
+
+    private OrderService orderService;
+    private InventoryClient inventoryClient;
+    private OrderRequest orderRequest;
+    private List<String> skuCodes;
+    private byte[] availability;
+
+    @Setup
+    public void setUp() {
+        orderRequest = new OrderRequest(IntStream.range(0, lineItems)
+                .mapToObj(i -> new OrderLineItemDto(null, "SKU-" + i, new BigDecimal("19.99"), i + 1))
+                .toList());
+        skuCodes = IntStream.range(0, lineItems).mapToObj(i -> "SKU-" + i).toList();
+
+        var inStock = new BitSet(lineItems);
+        inStock.set(0, lineItems);
+        availability = inStock.toByteArray();
+
+        var webClientBuilder = WebClient.builder().exchangeFunction(this::exchange);
+        var inventoryResilienceProperties = new InventoryResilienceProperties(Duration.ofSeconds(1), Duration.ofSeconds(2),
+                Duration.ofSeconds(3),
+                new InventoryResilienceProperties.CircuitBreaker(50, 80, Duration.ofSeconds(1), 100, 20, Duration.ofSeconds(5), 10),
+                new InventoryResilienceProperties.Bulkhead(Integer.MAX_VALUE),
+                new InventoryResilienceProperties.Retry(1, Duration.ZERO),
+                new InventoryResilienceProperties.Hedge(false, Duration.ZERO));
+        inventoryClient = new InventoryClient(webClientBuilder, new InventoryBatchProperties(false, 1, Duration.ZERO),
+                new InventoryResilience(inventoryResilienceProperties, new SimpleMeterRegistry()), new SimpleMeterRegistry());
+        var orderWriter = new OrderWriter(null, null, null, Schedulers.immediate(), new WriteBehindProperties(false, 1, Duration.ZERO),
+                new SimpleMeterRegistry()) {
+
+            @Override
+            public Mono<Order> save(Order order) {
+                return Mono.just(order);
+            }
+
+        };
+        var orderHistoryProjector = new OrderHistoryProjector(null, null, null, null, Schedulers.immediate(),
+                new OrderHistoryProperties(false, 1, Duration.ZERO, 1), new SimpleMeterRegistry());
+        orderService = new OrderService(orderWriter, null, inventoryClient, new OrderMetrics(new SimpleMeterRegistry()),
+                orderHistoryProjector, null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        inventoryClient.destroy();
+    }
+
+    @Benchmark
+    public Order placeOrder() {
+        return orderService.placeOrder(orderRequest).block();
+    }
+
+    @Benchmark
+    public InventoryResponse[] getAvailability() {
+        return inventoryClient.getAvailability(skuCodes).block();
+    }
+
+    private Mono<ClientResponse> exchange(ClientRequest clientRequest) {
+        var path = clientRequest.url().getPath();
+        if (path.endsWith("/availability")) {
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, InventoryClient.BITSET.toString())
+                    .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(availability)))
+                    .build());
+        }
+        if (path.endsWith("/confirm")) {
+            return Mono.just(ClientResponse.create(HttpStatus.NO_CONTENT).build());
+        }
+
+        return Mono.just(ClientResponse.create(HttpStatus.CREATED)
+                .header(HttpHeaders.CONTENT_TYPE, APPLICATION_JSON_VALUE)
+                .body(RESERVATION_JSON)
+                .build());
+    }
+
+}
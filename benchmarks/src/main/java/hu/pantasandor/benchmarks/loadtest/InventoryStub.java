@@ -0,0 +1,129 @@
+package hu.pantasandor.benchmarks.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import hu.pantasandor.orderservice.dto.ReservationBatchRequest;
+import hu.pantasandor.orderservice.dto.ReservationBatchResponse;
+import hu.pantasandor.orderservice.dto.ReservationResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stand-in for the inventory-service endpoints used by order-service. Every answer is delayed by the configured
+ * latency plus a random jitter and can be replaced by a 503, reservations can be refused with a 409. Requests are
+ * handled on virtual threads, so slow answers do not limit the number of requests in flight. A degraded replica is
+ * simulated by an extra latency.
+ */
+@Slf4j
+public class InventoryStub implements AutoCloseable {
+
+    private static final String API_URL = "/api/v1/inventory";
+
+    private final LoadTestOptions options;
+    private final Duration extraLatency;
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final LongAdder requests = new LongAdder();
+    private final HttpServer server;
+
+    public InventoryStub(LoadTestOptions options) throws IOException {
+        this(options, Duration.ZERO);
+    }
+
+    public InventoryStub(LoadTestOptions options, Duration extraLatency) throws IOException {
+        this.options = options;
+        this.extraLatency = extraLatency;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(API_URL, this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String getUri() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.increment();
+            // an unread request body makes the server close the connection
+            var body = exchange.getRequestBody().readAllBytes();
+            delay();
+
+            var random = ThreadLocalRandom.current();
+            if (random.nextDouble() < options.inventoryErrorRate()) {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+
+            var path = exchange.getRequestURI().getPath();
+            var method = exchange.getRequestMethod();
+            if (path.endsWith("/availability")) {
+                var skuCodes = objectMapper.readValue(body, String[].class);
+                var inStock = new BitSet(skuCodes.length);
+                inStock.set(0, skuCodes.length);
+                send(exchange, 200, "application/x-inventory-bitset", Arrays.copyOf(inStock.toByteArray(), (skuCodes.length + 7) / 8));
+            } else if (path.endsWith("/reservation/batch")) {
+                var batch = objectMapper.readValue(body, ReservationBatchRequest.class);
+                var reservations = batch.getReservationRequestList().stream()
+                        .map(reservationRequest -> random.nextDouble() < options.inventoryOutOfStockRate() ? null : reservation())
+                        .toList();
+                send(exchange, 200, "application/json", objectMapper.writeValueAsBytes(new ReservationBatchResponse(reservations)));
+            } else if (path.endsWith("/reservation") && method.equals("POST")) {
+                if (random.nextDouble() < options.inventoryOutOfStockRate()) {
+                    exchange.sendResponseHeaders(409, -1);
+                } else {
+                    send(exchange, 201, "application/json", objectMapper.writeValueAsBytes(reservation()));
+                }
+            } else if (path.endsWith("/confirm") || method.equals("DELETE")) {
+                exchange.sendResponseHeaders(204, -1);
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+            }
+        } catch (Exception e) {
+            log.warn("inventory stub failed", e);
+        }
+    }
+
+    private void delay() throws InterruptedException {
+        var jitter = options.inventoryJitter().toNanos();
+        var delay = options.inventoryLatency().plus(extraLatency).toNanos() + (jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter) : 0);
+        if (delay > 0) {
+            Thread.sleep(Duration.ofNanos(delay));
+        }
+    }
+
+    private static ReservationResponse reservation() {
+        return new ReservationResponse(UUID.randomUUID().toString(), Instant.now().plus(Duration.ofMinutes(5)));
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+}
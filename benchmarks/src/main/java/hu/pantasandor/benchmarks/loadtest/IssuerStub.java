@@ -0,0 +1,109 @@
+package hu.pantasandor.benchmarks.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Stand-in for the OpenID Connect issuer of the api-gateway. It publishes the discovery document and the JWK set
+ * of a freshly generated RSA key, and signs tokens for any subject: {@code GET /token?sub=client-1}.
+ * <p>
+ * Start it with the port the gateway expects, e.g. {@code IssuerStub 7000}, and point
+ * {@code spring.security.oauth2.resourceserver.jwt.issuer-uri} to the printed issuer.
+ */
+@Slf4j
+public class IssuerStub implements AutoCloseable {
+
+    private static final Duration TOKEN_TIME_TO_LIVE = Duration.ofHours(1);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final RSAKey rsaKey;
+    private final HttpServer server;
+
+    public IssuerStub(int port) throws IOException, JOSEException {
+        this.rsaKey = new RSAKeyGenerator(2048).keyID(UUID.randomUUID().toString()).generate();
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public static void main(String[] args) throws Exception {
+        var issuerStub = new IssuerStub(args.length > 0 ? Integer.parseInt(args[0]) : 0);
+        log.info("issuer: {}, sample token: {}", issuerStub.getIssuer(), issuerStub.token("client-1"));
+    }
+
+    public String getIssuer() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public String token(String subject) throws JOSEException {
+        var now = Instant.now();
+        var claims = new JWTClaimsSet.Builder()
+                .issuer(getIssuer())
+                .subject(subject)
+                .claim("azp", subject)
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(TOKEN_TIME_TO_LIVE)))
+                .jwtID(UUID.randomUUID().toString())
+                .build();
+        var jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(rsaKey.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(rsaKey));
+        return jwt.serialize();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            var path = exchange.getRequestURI().getPath();
+            if (path.equals("/.well-known/openid-configuration")) {
+                var configuration = Map.of("issuer", getIssuer(), "jwks_uri", getIssuer() + "/certs");
+                send(exchange, "application/json", objectMapper.writeValueAsBytes(configuration));
+            } else if (path.equals("/certs")) {
+                send(exchange, "application/json", new JWKSet(rsaKey.toPublicJWK()).toString().getBytes(StandardCharsets.UTF_8));
+            } else if (path.equals("/token")) {
+                var query = exchange.getRequestURI().getQuery();
+                var subject = query != null && query.startsWith("sub=") ? query.substring(4) : "client-1";
+                send(exchange, "text/plain", token(subject).getBytes(StandardCharsets.UTF_8));
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+            }
+        } catch (Exception e) {
+            log.warn("issuer stub failed", e);
+        }
+    }
+
+    private static void send(HttpExchange exchange, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+}
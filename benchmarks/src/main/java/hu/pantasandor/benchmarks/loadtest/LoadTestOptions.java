@@ -0,0 +1,43 @@
+package hu.pantasandor.benchmarks.loadtest;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Options of the load test, given as {@code --loadtest.<name>=<value>} arguments. Every other argument is passed on to
+ * order-service.
+ *
+ * @param rate                    requests sent per second, independent of how fast they are answered
+ * @param warmup                  time the load is applied before the results are recorded
+ * @param duration                time the results are recorded
+ * @param lineItems               line items per order
+ * @param timeout                 time after which a request is counted as failed
+ * @param inventoryLatency        minimum response time of the inventory stub
+ * @param inventoryJitter         maximum random response time added on top of the latency
+ * @param inventoryErrorRate      share of inventory calls answered with 503
+ * @param inventoryOutOfStockRate share of reservations answered with 409
+ * @param inventoryReplicas       number of inventory stubs order-service balances between
+ * @param degradedReplicaLatency  latency added to the answers of the first inventory stub
+ */
+public record LoadTestOptions(int rate, Duration warmup, Duration duration, int lineItems, Duration timeout,
+                              Duration inventoryLatency, Duration inventoryJitter, double inventoryErrorRate,
+                              double inventoryOutOfStockRate, int inventoryReplicas, Duration degradedReplicaLatency) {
+
+    public static final String PREFIX = "--loadtest.";
+
+    public static LoadTestOptions of(Map<String, String> options) {
+        return new LoadTestOptions(
+                Integer.parseInt(options.getOrDefault("rate", "200")),
+                Duration.parse(options.getOrDefault("warmup", "PT10S")),
+                Duration.parse(options.getOrDefault("duration", "PT30S")),
+                Integer.parseInt(options.getOrDefault("line-items", "3")),
+                Duration.parse(options.getOrDefault("timeout", "PT10S")),
+                Duration.parse(options.getOrDefault("inventory-latency", "PT0.005S")),
+                Duration.parse(options.getOrDefault("inventory-jitter", "PT0S")),
+                Double.parseDouble(options.getOrDefault("inventory-error-rate", "0")),
+                Double.parseDouble(options.getOrDefault("inventory-out-of-stock-rate", "0")),
+                Integer.parseInt(options.getOrDefault("inventory-replicas", "1")),
+                Duration.parse(options.getOrDefault("degraded-replica-latency", "PT0S")));
+    }
+
+}
@@ -0,0 +1,104 @@
+package hu.pantasandor.benchmarks.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests at a fixed rate no matter how long the previous ones take, like independent clients would. The
+ * latency of a request is measured from the time it was scheduled to be sent, so a stalled system is not hidden by
+ * requests that were sent late (coordinated omission).
+ */
+public class OpenModelLoadGenerator {
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    private final HttpRequest request;
+    private final Duration timeout;
+
+    public OpenModelLoadGenerator(URI uri, String body, Duration timeout) {
+        this.timeout = timeout;
+        this.request = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .timeout(timeout)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    /**
+     * Applies the load for the given time and returns the results of the requests sent in that time.
+     */
+    public Result run(int rate, Duration duration) {
+        var result = new Result(new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(10), 3), new ConcurrentHashMap<>(),
+                new LongAdder(), duration);
+        var interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        var start = System.nanoTime();
+        var end = start + duration.toNanos();
+        var pending = new ArrayList<CompletableFuture<?>>();
+
+        for (var intended = start; intended < end; intended += interval) {
+            var wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            var scheduledAt = intended;
+            pending.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, e) -> result.record(scheduledAt, response == null ? -1 : response.statusCode())));
+        }
+
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new))
+                .orTimeout(timeout.toSeconds() + 1, TimeUnit.SECONDS)
+                .exceptionally(e -> null)
+                .join();
+        return result;
+    }
+
+    /**
+     * @param latencies  latencies of all requests in microseconds
+     * @param statuses   number of responses by status code, -1 for requests that got no response
+     * @param successful number of requests answered with 2xx
+     */
+    public record Result(Histogram latencies, Map<Integer, LongAdder> statuses, LongAdder successful, Duration duration) {
+
+        private void record(long scheduledAt, int status) {
+            latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledAt));
+            statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+            if (status >= 200 && status < 300) {
+                successful.increment();
+            }
+        }
+
+        public String report() {
+            var report = new StringBuilder()
+                    .append("requests:   %d%n".formatted(latencies.getTotalCount()))
+                    .append("throughput: %.1f/s successful%n".formatted(successful.sum() / (duration.toMillis() / 1000.0)))
+                    .append("p50:        %.2f ms%n".formatted(latencies.getValueAtPercentile(50) / 1000.0))
+                    .append("p99:        %.2f ms%n".formatted(latencies.getValueAtPercentile(99) / 1000.0))
+                    .append("p99.9:      %.2f ms%n".formatted(latencies.getValueAtPercentile(99.9) / 1000.0))
+                    .append("max:        %.2f ms%n".formatted(latencies.getMaxValue() / 1000.0));
+            new TreeMap<>(statuses).forEach((status, count) ->
+                    report.append("status %s: %d%n".formatted(status == -1 ? "none" : status, count.sum())));
+            return report.toString();
+        }
+
+    }
+
+}
@@ -0,0 +1,85 @@
+package hu.pantasandor.benchmarks.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import hu.pantasandor.orderservice.OrderServiceApplication;
+import hu.pantasandor.orderservice.controller.OrderController;
+import hu.pantasandor.orderservice.dto.OrderLineItemDto;
+import hu.pantasandor.orderservice.dto.OrderRequest;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Load test of {@code POST /api/v1/order}. Starts order-service on an embedded H2 database from
+ * {@code order-loadtest.properties} against one or more {@link InventoryStub}s, applies the load with an
+ * {@link OpenModelLoadGenerator} and prints the latency percentiles, the throughput and the response statuses.
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar hu.pantasandor.benchmarks.loadtest.OrderLoadTest \
+ *     --loadtest.rate=500 --loadtest.inventory-latency=PT0.05S --order.inventory.batch.enabled=true
+ * </pre>
+ */
+public class OrderLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        var loadTestOptions = new HashMap<String, String>();
+        var applicationArgs = Arrays.stream(args)
+                .filter(arg -> {
+                    if (!arg.startsWith(LoadTestOptions.PREFIX)) {
+                        return true;
+                    }
+                    var option = arg.substring(LoadTestOptions.PREFIX.length()).split("=", 2);
+                    loadTestOptions.put(option[0], option[1]);
+                    return false;
+                })
+                .toArray(String[]::new);
+        var options = LoadTestOptions.of(loadTestOptions);
+
+        var inventoryStubs = new ArrayList<InventoryStub>();
+        for (var replica = 0; replica < options.inventoryReplicas(); replica++) {
+            inventoryStubs.add(new InventoryStub(options, replica == 0 ? options.degradedReplicaLatency() : Duration.ZERO));
+        }
+        var properties = new ArrayList<String>();
+        properties.add("spring.config.name=order-loadtest");
+        for (var replica = 0; replica < inventoryStubs.size(); replica++) {
+            properties.add("spring.cloud.discovery.client.simple.instances.inventory-service[" + replica + "].uri="
+                    + inventoryStubs.get(replica).getUri());
+        }
+
+        try (var context = new SpringApplicationBuilder(OrderServiceApplication.class)
+                .properties(properties.toArray(String[]::new))
+                .run(applicationArgs)) {
+            var port = context.getEnvironment().getRequiredProperty("local.server.port");
+            var loadGenerator = new OpenModelLoadGenerator(URI.create("http://localhost:" + port + OrderController.API_URL),
+                    orderRequest(options.lineItems()), options.timeout());
+
+            System.out.printf("%s%nwarming up for %s%n", options, options.warmup());
+            loadGenerator.run(options.rate(), options.warmup());
+
+            System.out.printf("measuring for %s%n", options.duration());
+            var before = inventoryStubs.stream().mapToLong(InventoryStub::getRequests).toArray();
+            var result = loadGenerator.run(options.rate(), options.duration());
+            System.out.print(result.report());
+            for (var replica = 0; replica < inventoryStubs.size(); replica++) {
+                System.out.printf("inventory requests, replica %d: %d%n", replica,
+                        inventoryStubs.get(replica).getRequests() - before[replica]);
+            }
+        } finally {
+            inventoryStubs.forEach(InventoryStub::close);
+        }
+    }
+
+    private static String orderRequest(int lineItems) throws JsonProcessingException {
+        var orderRequest = new OrderRequest(IntStream.range(0, lineItems)
+                .mapToObj(i -> new OrderLineItemDto(null, "SKU-" + i, new BigDecimal("19.99"), 1))
+                .toList());
+        return Jackson2ObjectMapperBuilder.json().build().writeValueAsString(orderRequest);
+    }
+
+}
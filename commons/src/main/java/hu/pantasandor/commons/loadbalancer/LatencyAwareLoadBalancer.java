@@ -0,0 +1,184 @@
+package hu.pantasandor.commons.loadbalancer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Power of two choices over a peak EWMA of the response times: of two random instances the one with the lower
+ * response time times requests in flight is chosen. A slow or stalled instance gets less traffic at once, as it
+ * either answers slowly or piles up requests, and gets it back as its average decays. Failures and 5xx answers
+ * count as at least {@code failurePenalty}.
+ * <p>
+ * As a {@link LoadBalancerLifecycle} it is told about the start and the end of every request it balanced. The stats
+ * of instances that are no longer listed, e.g. deregistered from eureka, are dropped on the next choice.
+ */
+@Slf4j
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+        LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+    // load of an instance with requests in flight but no response time yet, it should not get all the traffic
+    private static final double UNKNOWN_LOAD = Long.MAX_VALUE >> 16;
+
+    private final String serviceId;
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+    private final double decayNanos;
+    private final long failurePenaltyNanos;
+    private final Map<String, InstanceStats> instanceStats = new ConcurrentHashMap<>();
+
+    public LatencyAwareLoadBalancer(String serviceId,
+                                    ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                                    Duration decayTime,
+                                    Duration failurePenalty) {
+        this.serviceId = serviceId;
+        this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+        this.decayNanos = decayTime.toNanos();
+        this.failurePenaltyNanos = failurePenalty.toNanos();
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        var serviceInstanceListSupplier = serviceInstanceListSupplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return serviceInstanceListSupplier.get(request).next().map(this::choose);
+    }
+
+    private Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            log.warn("no servers available for service: {}", serviceId);
+            return new EmptyResponse();
+        }
+        if (instanceStats.size() > instances.size()) {
+            prune(instances);
+        }
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+
+        var random = ThreadLocalRandom.current();
+        var first = random.nextInt(instances.size());
+        var second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        var firstInstance = instances.get(first);
+        var secondInstance = instances.get(second);
+        var now = System.nanoTime();
+        var firstLoad = stats(firstInstance).load(now, decayNanos);
+        var secondLoad = stats(secondInstance).load(now, decayNanos);
+        var chosen = firstLoad <= secondLoad ? firstInstance : secondInstance;
+        return new DefaultResponse(chosen);
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return RequestDataContext.class.isAssignableFrom(requestContextClass)
+                && ResponseData.class.isAssignableFrom(responseClass)
+                && ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<RequestDataContext> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse.hasServer()) {
+            request.getContext().setRequestStartTime(System.nanoTime());
+            stats(lbResponse.getServer()).inFlight.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+        var lbResponse = completionContext.getLoadBalancerResponse();
+        var startTime = completionContext.getLoadBalancerRequest().getContext().getRequestStartTime();
+        if (lbResponse == null || !lbResponse.hasServer() || startTime == 0) {
+            return;
+        }
+
+        var stats = stats(lbResponse.getServer());
+        stats.inFlight.updateAndGet(inFlight -> Math.max(0, inFlight - 1));
+        if (completionContext.status() == CompletionContext.Status.DISCARD) {
+            return;
+        }
+
+        var now = System.nanoTime();
+        var responseTime = now - startTime;
+        if (isFailure(completionContext)) {
+            responseTime = Math.max(responseTime, failurePenaltyNanos);
+        }
+        stats.observe(responseTime, now, decayNanos);
+    }
+
+    private static boolean isFailure(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+        var clientResponse = completionContext.getClientResponse();
+        return completionContext.status() == CompletionContext.Status.FAILED
+                || clientResponse != null && clientResponse.getHttpStatus() != null && clientResponse.getHttpStatus().is5xxServerError();
+    }
+
+    private void prune(List<ServiceInstance> instances) {
+        Set<String> keys = instances.stream()
+                .map(LatencyAwareLoadBalancer::key)
+                .collect(Collectors.toSet());
+        instanceStats.keySet().retainAll(keys);
+    }
+
+    private InstanceStats stats(ServiceInstance instance) {
+        return instanceStats.computeIfAbsent(key(instance), k -> new InstanceStats());
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getInstanceId() != null ? instance.getInstanceId() : instance.getHost() + ":" + instance.getPort();
+    }
+
+    private static class InstanceStats {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private double cost;
+        private long lastObserved = System.nanoTime();
+
+        /**
+         * The cost decays towards zero while nothing is observed, so an instance that was slow gets probed again.
+         */
+        synchronized double load(long now, double decayNanos) {
+            var pending = inFlight.get();
+            if (cost == 0 && pending > 0) {
+                return UNKNOWN_LOAD + pending;
+            }
+            return cost * weight(now, decayNanos) * (pending + 1);
+        }
+
+        synchronized void observe(long responseTime, long now, double decayNanos) {
+            var weight = weight(now, decayNanos);
+            lastObserved = now;
+            cost = responseTime > cost ? responseTime : cost * weight + responseTime * (1 - weight);
+        }
+
+        private double weight(long now, double decayNanos) {
+            return Math.exp(-Math.max(0, now - lastObserved) / decayNanos);
+        }
+
+    }
+
+}
@@ -0,0 +1,30 @@
+package hu.pantasandor.commons.loadbalancer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Load balancer configuration of every service, registered in the child context of each service. It is not a
+ * {@code @Configuration}, so it is not picked up by the component scan of the application context.
+ * <p>
+ * The latency-aware load balancer is used when the application context has {@link LatencyAwareLoadBalancerProperties},
+ * otherwise the round-robin one of spring cloud.
+ */
+public class LatencyAwareLoadBalancerConfiguration {
+
+    @Bean
+    @ConditionalOnBean(LatencyAwareLoadBalancerProperties.class)
+    public LatencyAwareLoadBalancer latencyAwareLoadBalancer(Environment environment,
+                                                             LoadBalancerClientFactory loadBalancerClientFactory,
+                                                             LatencyAwareLoadBalancerProperties properties) {
+        var serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LatencyAwareLoadBalancer(serviceId,
+                loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                properties.decayTime(),
+                properties.failurePenalty());
+    }
+
+}
@@ -0,0 +1,12 @@
+package hu.pantasandor.commons.loadbalancer;
+
+import java.time.Duration;
+
+/**
+ * Bound by each service from its own prefix, e.g. {@code order.loadbalancer.latency-aware}.
+ *
+ * @param decayTime      time constant of the moving average of the response times
+ * @param failurePenalty response time a failed request or a 5xx answer counts as at least
+ */
+public record LatencyAwareLoadBalancerProperties(Duration decayTime, Duration failurePenalty) {
+}
@@ -0,0 +1,63 @@
+package hu.pantasandor.commons.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides for every request whether its logs are kept, with the rate of the first path pattern matching the
+ * request. The decision is put into the {@value #MDC_KEY} MDC entry, the {@link SamplingTurboFilter} drops the
+ * events below WARN of the requests not sampled. So the logs of a request are kept or dropped together.
+ * <p>
+ * Each service registers it as a bean with the {@link LogSamplingProperties} bound from its own prefix.
+ */
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class LogSamplingFilter extends OncePerRequestFilter {
+
+    public static final String MDC_KEY = "sampled";
+
+    private final double defaultRate;
+    private final Map<PathPattern, Double> rates = new LinkedHashMap<>();
+
+    public LogSamplingFilter(LogSamplingProperties logSamplingProperties) {
+        this.defaultRate = logSamplingProperties.defaultRate();
+        logSamplingProperties.rates().forEach((pattern, rate) ->
+                rates.put(PathPatternParser.defaultInstance.parse(pattern), rate));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        var rate = rate(PathContainer.parsePath(request.getRequestURI()));
+        var sampled = rate >= 1 || ThreadLocalRandom.current().nextDouble() < rate;
+        MDC.put(MDC_KEY, String.valueOf(sampled));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    private double rate(PathContainer path) {
+        for (var entry : rates.entrySet()) {
+            if (entry.getKey().matches(path)) {
+                return entry.getValue();
+            }
+        }
+        return defaultRate;
+    }
+
+}
@@ -0,0 +1,18 @@
+package hu.pantasandor.commons.logging;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/**
+ * Bound by each service from its own prefix, e.g. {@code inventory.logging.sampling}.
+ *
+ * @param defaultRate share of the requests whose logs are kept if no pattern matches
+ * @param rates       share of the requests whose logs are kept by path pattern, the first matching pattern applies
+ */
+public record LogSamplingProperties(@DefaultValue("1.0") double defaultRate, Map<String, Double> rates) {
+
+    public LogSamplingProperties {
+        rates = rates == null ? Map.of() : rates;
+    }
+}
@@ -0,0 +1,24 @@
+package hu.pantasandor.commons.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+/**
+ * Drops the events below WARN logged while a request not sampled by the {@link LogSamplingFilter} is handled, before
+ * the event is even created. Warnings and errors are always kept.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level != null && level.isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        return "false".equals(MDC.get(LogSamplingFilter.MDC_KEY)) ? FilterReply.DENY : FilterReply.NEUTRAL;
+    }
+
+}
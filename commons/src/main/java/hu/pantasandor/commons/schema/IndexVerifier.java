@@ -0,0 +1,62 @@
+package hu.pantasandor.commons.schema;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Fails the startup if an index the queries of the service rely on is missing, instead of letting the lookups
+ * silently fall back to full table scans. The bean has to run after the migrations, so the service registers it
+ * with {@code @DependsOnDatabaseInitialization}.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class IndexVerifier implements InitializingBean {
+
+    private final DataSource dataSource;
+    private final List<ExpectedIndex> expectedIndexes;
+
+    @Override
+    public void afterPropertiesSet() throws SQLException {
+        var missingIndexes = new ArrayList<ExpectedIndex>();
+        try (var connection = dataSource.getConnection()) {
+            var metaData = connection.getMetaData();
+            for (var expectedIndex : expectedIndexes) {
+                if (!exists(metaData, connection.getCatalog(), expectedIndex)) {
+                    missingIndexes.add(expectedIndex);
+                }
+            }
+        }
+
+        if (!missingIndexes.isEmpty()) {
+            throw new IllegalStateException("missing indexes: " + missingIndexes);
+        }
+        log.info("verified indexes: {}", expectedIndexes.size());
+    }
+
+    private static boolean exists(DatabaseMetaData metaData, String catalog, ExpectedIndex expectedIndex) throws SQLException {
+        var columns = new TreeMap<Short, String>();
+        var unique = false;
+        try (var indexInfo = metaData.getIndexInfo(catalog, null, expectedIndex.table(), false, false)) {
+            while (indexInfo.next()) {
+                if (expectedIndex.name().equalsIgnoreCase(indexInfo.getString("INDEX_NAME"))) {
+                    columns.put(indexInfo.getShort("ORDINAL_POSITION"), indexInfo.getString("COLUMN_NAME").toLowerCase());
+                    unique = !indexInfo.getBoolean("NON_UNIQUE");
+                }
+            }
+        }
+
+        return unique == expectedIndex.unique() && expectedIndex.columns().equals(List.copyOf(columns.values()));
+    }
+
+    public record ExpectedIndex(String table, String name, boolean unique, List<String> columns) {
+    }
+
+}
@@ -0,0 +1,40 @@
+package hu.pantasandor.commons.thread;
+
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ConcurrentTaskScheduler;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Runs request handling, {@code @Async} and {@code @Scheduled} work on virtual threads. It is not a
+ * {@code @Configuration}, each service imports it behind its own {@code <service>.threads.virtual.enabled} switch.
+ */
+public class VirtualThreadConfiguration {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        var threadFactory = Thread.ofVirtual().name("http-", 0).factory();
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newThreadPerTaskExecutor(threadFactory));
+    }
+
+    @Bean(name = {
+            TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME
+    })
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        var threadFactory = Thread.ofVirtual().name("task-", 0).factory();
+        return new TaskExecutorAdapter(Executors.newThreadPerTaskExecutor(threadFactory));
+    }
+
+    @Bean
+    public TaskScheduler taskScheduler() {
+        var threadFactory = Thread.ofVirtual().name("scheduling-", 0).factory();
+        return new ConcurrentTaskScheduler(Executors.newSingleThreadScheduledExecutor(threadFactory));
+    }
+}
@@ -0,0 +1,155 @@
+package hu.pantasandor.commons.loadbalancer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class LatencyAwareLoadBalancerTests {
+
+    private static final String SERVICE_ID = "inventory-service";
+    private static final Duration DECAY_TIME = Duration.ofMinutes(1);
+    private static final Duration FAILURE_PENALTY = Duration.ofSeconds(1);
+    private static final int CHOICES = 100;
+
+    private final ServiceInstance fast = instance("fast");
+    private final ServiceInstance slow = instance("slow");
+    private final ServiceInstance other = instance("other");
+
+    private InstanceList instanceList;
+    private LatencyAwareLoadBalancer loadBalancer;
+
+    @BeforeEach
+    void setUp() {
+        instanceList = new InstanceList();
+        var beanFactory = new StaticListableBeanFactory(Map.of("instanceList", instanceList));
+        loadBalancer = new LatencyAwareLoadBalancer(SERVICE_ID,
+                beanFactory.getBeanProvider(ServiceInstanceListSupplier.class), DECAY_TIME, FAILURE_PENALTY);
+    }
+
+    @Test
+    @DisplayName("Should choose the faster of two instances")
+    void shouldChooseTheFasterInstance() {
+        instanceList.set(fast, slow);
+        complete(fast, Duration.ofMillis(10), CompletionContext.Status.SUCCESS);
+        complete(slow, Duration.ofMillis(500), CompletionContext.Status.SUCCESS);
+
+        for (int i = 0; i < CHOICES; i++) {
+            assertEquals(fast, choose());
+        }
+    }
+
+    @Test
+    @DisplayName("Should never choose the slowest instance when it is compared with another one")
+    void shouldNeverChooseTheSlowestInstance() {
+        instanceList.set(fast, slow, other);
+        complete(fast, Duration.ofMillis(10), CompletionContext.Status.SUCCESS);
+        complete(other, Duration.ofMillis(20), CompletionContext.Status.SUCCESS);
+        complete(slow, Duration.ofMillis(10), CompletionContext.Status.FAILED);
+
+        for (int i = 0; i < CHOICES; i++) {
+            assertNotEquals(slow, choose());
+        }
+    }
+
+    @Test
+    @DisplayName("Should avoid an instance with requests in flight but no response time yet")
+    void shouldAvoidAnInstanceWithRequestsInFlight() {
+        instanceList.set(fast, slow);
+        start(slow);
+
+        for (int i = 0; i < CHOICES; i++) {
+            assertEquals(fast, choose());
+        }
+    }
+
+    @Test
+    @DisplayName("Should forget the stats of an instance that left the instance list")
+    void shouldForgetTheStatsOfARemovedInstance() {
+        instanceList.set(fast, slow);
+        complete(fast, Duration.ofMillis(10), CompletionContext.Status.SUCCESS);
+        complete(slow, Duration.ofMillis(500), CompletionContext.Status.SUCCESS);
+
+        // the slow instance is deregistered, another one takes its place
+        instanceList.set(fast, other);
+        choose();
+        choose();
+
+        // back with no history it is tried before the one with a response time
+        instanceList.set(fast, slow);
+        assertEquals(slow, choose());
+    }
+
+    @Test
+    @DisplayName("Should return an empty response without instances")
+    void shouldReturnAnEmptyResponseWithoutInstances() {
+        instanceList.set();
+
+        var response = loadBalancer.choose(new DefaultRequest<>(new RequestDataContext())).block();
+
+        assertFalse(response.hasServer());
+    }
+
+    private ServiceInstance choose() {
+        return loadBalancer.choose(new DefaultRequest<>(new RequestDataContext())).block().getServer();
+    }
+
+    private Request<RequestDataContext> start(ServiceInstance instance) {
+        var request = new DefaultRequest<>(new RequestDataContext());
+        loadBalancer.onStartRequest(request, new DefaultResponse(instance));
+        return request;
+    }
+
+    private void complete(ServiceInstance instance, Duration responseTime, CompletionContext.Status status) {
+        var request = start(instance);
+        request.getContext().setRequestStartTime(System.nanoTime() - responseTime.toNanos());
+        var response = new DefaultResponse(instance);
+        if (status == CompletionContext.Status.FAILED) {
+            loadBalancer.onComplete(new CompletionContext<>(status, new IllegalStateException("failed"), request, response));
+        } else {
+            loadBalancer.onComplete(new CompletionContext<>(status, request, response));
+        }
+    }
+
+    private static ServiceInstance instance(String instanceId) {
+        return new DefaultServiceInstance(instanceId, SERVICE_ID, instanceId + ".local", 8082, false);
+    }
+
+    private static class InstanceList implements ServiceInstanceListSupplier {
+
+        private volatile List<ServiceInstance> instances = List.of();
+
+        void set(ServiceInstance... instances) {
+            this.instances = List.of(instances);
+        }
+
+        @Override
+        public String getServiceId() {
+            return SERVICE_ID;
+        }
+
+        @Override
+        public Flux<List<ServiceInstance>> get() {
+            return Flux.defer(() -> Flux.just(instances));
+        }
+
+    }
+
+}
@@ -0,0 +1,80 @@
+package hu.pantasandor.commons.thread;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(classes = VirtualThreadConfigurationTests.TestApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "test.threads.virtual.enabled=true")
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class VirtualThreadConfigurationTests {
+
+    private static final String THREAD_URL = "/thread";
+
+    private final AsyncTaskExecutor applicationTaskExecutor;
+    private final WebTestClient webClient;
+
+    @Test
+    @DisplayName("Should handle requests on virtual threads when the switch is on")
+    void shouldHandleRequestsOnVirtualThreads() {
+        webClient.get().uri(THREAD_URL)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.virtual").isEqualTo(true)
+                .jsonPath("$.name").value(startsWith("http-"));
+    }
+
+    @Test
+    @DisplayName("Should run tasks on virtual threads when the switch is on")
+    void shouldRunTasksOnVirtualThreads() throws Exception {
+        var thread = applicationTaskExecutor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+        assertTrue(thread.isVirtual());
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @Import({TestVirtualThreadConfig.class, ThreadController.class})
+    static class TestApplication {
+    }
+
+    /**
+     * Imports the configuration behind a switch, the way the VirtualThreadConfig of each service does.
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "test.threads.virtual.enabled", havingValue = "true")
+    @Import(VirtualThreadConfiguration.class)
+    static class TestVirtualThreadConfig {
+    }
+
+    @RestController
+    static class ThreadController {
+
+        @GetMapping(THREAD_URL)
+        ThreadResponse thread() {
+            var thread = Thread.currentThread();
+            return new ThreadResponse(thread.getName(), thread.isVirtual());
+        }
+    }
+
+    public record ThreadResponse(String name, boolean virtual) {
+    }
+}
@@ -0,0 +1,139 @@
+package hu.pantasandor.inventoryservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import hu.pantasandor.inventoryservice.config.StockIndexProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * In-process index of stock quantities keyed by sku code. Entries are bounded in number and expire after a write,
+ * which also bounds how long changes made by other replicas stay invisible. Local changes are applied only after
+ * the writing transaction commits.
+ * <p>
+ * A reader claims the sku codes it loads with a token of its own before it reads the database, and only replaces
+ * that token with the loaded quantity. A write committed meanwhile replaces or removes the token, so a quantity read
+ * before the write never overwrites it.
+ */
+@Component
+public class StockIndex {
+
+    public static final String CACHE_NAME = "inventory.stock-index";
+
+    private static final int ABSENT = -1;
+    private static final int LOADING = -2;
+
+    private final boolean enabled;
+    private final Cache<String, Slot> quantities;
+
+    public StockIndex(StockIndexProperties stockIndexProperties, MeterRegistry meterRegistry) {
+        this.enabled = stockIndexProperties.enabled();
+        this.quantities = Caffeine.newBuilder()
+                .maximumSize(stockIndexProperties.maximumSize())
+                .expireAfterWrite(stockIndexProperties.expireAfterWrite())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, quantities, CACHE_NAME);
+    }
+
+    /**
+     * Returns the quantities of the given sku codes. Sku codes missing from the index are loaded with a single
+     * call of the loader, unknown sku codes are remembered as absent and left out of the result.
+     */
+    public Map<String, Integer> getQuantities(List<String> skuCodes, Function<Set<String>, Map<String, Integer>> loader) {
+        if (!enabled) {
+            return loader.apply(Set.copyOf(skuCodes));
+        }
+
+        var result = new HashMap<String, Integer>();
+        var missingSkuCodes = new HashSet<String>();
+        var tokens = new HashMap<String, Slot>();
+        for (var skuCode : skuCodes) {
+            var slot = quantities.getIfPresent(skuCode);
+            if (slot == null || slot.quantity() == LOADING) {
+                // loaded either way, but only indexed by the reader holding the token
+                var token = new Slot(LOADING);
+                if (slot == null && quantities.asMap().putIfAbsent(skuCode, token) == null) {
+                    tokens.put(skuCode, token);
+                }
+                missingSkuCodes.add(skuCode);
+            } else if (slot.quantity() != ABSENT) {
+                result.put(skuCode, slot.quantity());
+            }
+        }
+        if (missingSkuCodes.isEmpty()) {
+            return result;
+        }
+
+        Map<String, Integer> loaded;
+        try {
+            loaded = loader.apply(Set.copyOf(missingSkuCodes));
+        } catch (RuntimeException e) {
+            tokens.forEach(quantities.asMap()::remove);
+            throw e;
+        }
+        for (var skuCode : missingSkuCodes) {
+            var quantity = loaded.get(skuCode);
+            if (quantity != null) {
+                result.put(skuCode, quantity);
+            }
+            var token = tokens.get(skuCode);
+            if (token != null) {
+                quantities.asMap().replace(skuCode, token, new Slot(quantity == null ? ABSENT : quantity));
+            }
+        }
+        return result;
+    }
+
+    public void putAfterCommit(String skuCode, int quantity) {
+        afterCommit(() -> quantities.put(skuCode, new Slot(quantity)));
+    }
+
+    public void invalidateAfterCommit(Collection<String> skuCodes) {
+        afterCommit(() -> quantities.invalidateAll(skuCodes));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * A quantity in the index or the token of a reader loading it. Compared by identity, so that a token is only
+     * replaced by the reader that put it.
+     */
+    private static final class Slot {
+
+        private final int quantity;
+
+        private Slot(int quantity) {
+            this.quantity = quantity;
+        }
+
+        private int quantity() {
+            return quantity;
+        }
+
+    }
+
+}
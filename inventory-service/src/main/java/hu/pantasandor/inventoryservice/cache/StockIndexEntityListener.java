@@ -0,0 +1,37 @@
+package hu.pantasandor.inventoryservice.cache;
+
+import hu.pantasandor.inventoryservice.model.Inventory;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Writes entity changes of {@link Inventory} through to the {@link StockIndex}.
+ */
+@Component
+@RequiredArgsConstructor
+public class StockIndexEntityListener {
+
+    private final StockIndex stockIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Inventory inventory) {
+        if (inventory.getQuantity() == null) {
+            onRemove(inventory);
+            return;
+        }
+
+        stockIndex.putAfterCommit(inventory.getSkuCode(), inventory.getQuantity());
+    }
+
+    @PostRemove
+    public void onRemove(Inventory inventory) {
+        stockIndex.invalidateAfterCommit(List.of(inventory.getSkuCode()));
+    }
+
+}
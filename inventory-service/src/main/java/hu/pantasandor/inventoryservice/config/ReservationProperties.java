@@ -0,0 +1,9 @@
+package hu.pantasandor.inventoryservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "inventory.reservation")
+public record ReservationProperties(Duration ttl, int expiryBatchSize) {
+}
@@ -0,0 +1,32 @@
+package hu.pantasandor.inventoryservice.config;
+
+import hu.pantasandor.commons.schema.IndexVerifier;
+import hu.pantasandor.commons.schema.IndexVerifier.ExpectedIndex;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Verifies the indexes the queries of inventory-service rely on at startup, unless
+ * {@code inventory.schema.verify-indexes} is off.
+ */
+@Configuration
+@ConditionalOnProperty(name = "inventory.schema.verify-indexes", havingValue = "true", matchIfMissing = true)
+public class SchemaConfig {
+
+    @Bean
+    @DependsOnDatabaseInitialization
+    public IndexVerifier indexVerifier(DataSource dataSource) {
+        return new IndexVerifier(dataSource, List.of(
+                new ExpectedIndex("t_inventories", "ux_inventories_sku_code", true, List.of("sku_code")),
+                new ExpectedIndex("t_inventories", "ix_inventories_sku_code_quantity", false, List.of("sku_code", "quantity")),
+                new ExpectedIndex("t_reservations", "ux_reservations_reservation_number", true, List.of("reservation_number")),
+                new ExpectedIndex("t_reservations", "ix_reservations_status_expires_at", false, List.of("status", "expires_at")),
+                new ExpectedIndex("t_reservation_line_items", "ix_reservation_line_items_reservation_id", false, List.of("reservation_id"))));
+    }
+
+}
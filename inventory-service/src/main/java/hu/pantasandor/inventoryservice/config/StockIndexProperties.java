@@ -0,0 +1,9 @@
+package hu.pantasandor.inventoryservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "inventory.stock-index")
+public record StockIndexProperties(boolean enabled, long maximumSize, Duration expireAfterWrite) {
+}
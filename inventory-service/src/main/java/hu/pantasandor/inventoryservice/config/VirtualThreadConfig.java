@@ -0,0 +1,30 @@
+package hu.pantasandor.inventoryservice.config;
+
+import hu.pantasandor.commons.thread.VirtualThreadConfiguration;
+import hu.pantasandor.commons.thread.VirtualThreadPinningMonitor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import java.time.Duration;
+
+/**
+ * Runs request handling, {@code @Async} and {@code @Scheduled} work on virtual threads when
+ * {@code inventory.threads.virtual.enabled} is set, and reports the virtual threads pinned for longer than
+ * {@code inventory.threads.virtual.pinning-threshold}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "inventory.threads.virtual.enabled", havingValue = "true")
+@Import(VirtualThreadConfiguration.class)
+public class VirtualThreadConfig {
+
+    @Bean
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            @Value("${inventory.threads.virtual.pinning-threshold:PT0.02S}") Duration threshold,
+            MeterRegistry meterRegistry) {
+        return new VirtualThreadPinningMonitor(threshold, meterRegistry);
+    }
+}
@@ -1,15 +1,27 @@
 package hu.pantasandor.inventoryservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import hu.pantasandor.inventoryservice.dto.InventoryResponse;
 import hu.pantasandor.inventoryservice.mapper.InventoryMapper;
+import hu.pantasandor.inventoryservice.model.Inventory;
 import hu.pantasandor.inventoryservice.service.InventoryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static hu.pantasandor.inventoryservice.controller.InventoryController.API_URL;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
 @RestController
 @RequestMapping(API_URL)
@@ -18,7 +30,18 @@ public class InventoryController {
 
     public static final String API_URL = "/api/v1/inventory";
 
+    /**
+     * One bit per requested sku code in request order, set if the product is in stock. Bit {@code i} is bit
+     * {@code i % 8} of byte {@code i / 8}, as read by {@link BitSet#valueOf(byte[])}.
+     */
+    public static final String BITSET_VALUE = "application/x-inventory-bitset";
+    public static final MediaType BITSET = MediaType.parseMediaType(BITSET_VALUE);
+
+    // a multiple of 8 so that the bitset of every chunk starts at a byte boundary
+    private static final int CHUNK_SIZE = 1024;
+
     private final InventoryService inventoryService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
@@ -28,4 +51,58 @@ public class InventoryController {
                 .toList();
     }
 
+    /**
+     * One entry per requested sku code in request order, an unknown sku code is not in stock. The sku codes are
+     * looked up and the response is written in chunks, the request body is read as a whole.
+     */
+    @PostMapping(path = "/availability", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getAvailability(@RequestBody List<String> skuCodes) {
+        StreamingResponseBody body = outputStream -> {
+            try (var generator = objectMapper.createGenerator(outputStream)) {
+                generator.writeStartArray();
+                for (var chunk : chunks(skuCodes)) {
+                    var inStock = getInStock(chunk);
+                    for (var skuCode : chunk) {
+                        generator.writeObject(new InventoryResponse(skuCode, inStock.getOrDefault(skuCode, false)));
+                    }
+                    generator.flush();
+                }
+                generator.writeEndArray();
+            }
+        };
+
+        return ResponseEntity.ok().contentType(APPLICATION_JSON).body(body);
+    }
+
+    @PostMapping(path = "/availability", consumes = APPLICATION_JSON_VALUE, produces = BITSET_VALUE)
+    public ResponseEntity<StreamingResponseBody> getAvailabilityBitset(@RequestBody List<String> skuCodes) {
+        StreamingResponseBody body = outputStream -> {
+            for (var chunk : chunks(skuCodes)) {
+                var inStock = getInStock(chunk);
+
+                var bits = new BitSet(chunk.size());
+                for (var i = 0; i < chunk.size(); i++) {
+                    bits.set(i, inStock.getOrDefault(chunk.get(i), false));
+                }
+                outputStream.write(Arrays.copyOf(bits.toByteArray(), (chunk.size() + 7) / 8));
+                outputStream.flush();
+            }
+        };
+
+        return ResponseEntity.ok().contentType(BITSET).body(body);
+    }
+
+    private Map<String, Boolean> getInStock(List<String> skuCodes) {
+        return inventoryService.isInStock(skuCodes).stream()
+                .collect(Collectors.toMap(Inventory::getSkuCode, InventoryMapper.INSTANCE::isInStock));
+    }
+
+    private static List<List<String>> chunks(List<String> skuCodes) {
+        var chunks = new ArrayList<List<String>>();
+        for (var from = 0; from < skuCodes.size(); from += CHUNK_SIZE) {
+            chunks.add(skuCodes.subList(from, Math.min(from + CHUNK_SIZE, skuCodes.size())));
+        }
+        return chunks;
+    }
+
 }
@@ -0,0 +1,95 @@
+package hu.pantasandor.inventoryservice.controller;
+
+import hu.pantasandor.inventoryservice.dto.ReservationBatchRequest;
+import hu.pantasandor.inventoryservice.dto.ReservationBatchResponse;
+import hu.pantasandor.inventoryservice.dto.ReservationItemDto;
+import hu.pantasandor.inventoryservice.dto.ReservationRequest;
+import hu.pantasandor.inventoryservice.dto.ReservationResponse;
+import hu.pantasandor.inventoryservice.error.InsufficientStockException;
+import hu.pantasandor.inventoryservice.mapper.ReservationMapper;
+import hu.pantasandor.inventoryservice.service.ReservationService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import static hu.pantasandor.inventoryservice.controller.ReservationController.API_URL;
+import static org.springframework.http.HttpStatus.CREATED;
+import static org.springframework.http.HttpStatus.NO_CONTENT;
+import static org.springframework.http.HttpStatus.OK;
+
+@RestController
+@RequestMapping(API_URL)
+@RequiredArgsConstructor
+public class ReservationController {
+
+    public static final String API_URL = InventoryController.API_URL + "/reservation";
+
+    private final ReservationService reservationService;
+
+    @PostMapping
+    @ResponseStatus(CREATED)
+    public ReservationResponse reserve(@RequestBody @Valid ReservationRequest reservationRequest) {
+        return ReservationMapper.INSTANCE.doMap(reservationService.reserve(getQuantitiesBySkuCode(reservationRequest)));
+    }
+
+    /**
+     * Reserves several orders in one round trip. Every reservation is all-or-nothing on its own, a reservation
+     * short of stock does not affect the others. If a reservation fails for another reason, the reservations
+     * already made for the batch are released before the failure is passed on, so that no hold is left behind that
+     * the caller does not know about.
+     */
+    @PostMapping("/batch")
+    @ResponseStatus(OK)
+    public ReservationBatchResponse reserveBatch(@RequestBody @Valid ReservationBatchRequest reservationBatchRequest) {
+        var reservationResponseList = new ArrayList<ReservationResponse>();
+        for (var reservationRequest : reservationBatchRequest.getReservationRequestList()) {
+            try {
+                var reservation = reservationService.reserve(getQuantitiesBySkuCode(reservationRequest));
+                reservationResponseList.add(ReservationMapper.INSTANCE.doMap(reservation));
+            } catch (InsufficientStockException e) {
+                reservationResponseList.add(null);
+            } catch (RuntimeException e) {
+                releaseAll(reservationResponseList, e);
+                throw e;
+            }
+        }
+
+        return new ReservationBatchResponse(reservationResponseList);
+    }
+
+    @PostMapping("/{reservationNumber}/confirm")
+    @ResponseStatus(NO_CONTENT)
+    public void confirm(@PathVariable String reservationNumber) {
+        reservationService.confirm(reservationNumber);
+    }
+
+    @DeleteMapping("/{reservationNumber}")
+    @ResponseStatus(NO_CONTENT)
+    public void release(@PathVariable String reservationNumber) {
+        reservationService.release(reservationNumber);
+    }
+
+    private void releaseAll(List<ReservationResponse> reservationResponseList, RuntimeException cause) {
+        reservationResponseList.stream()
+                .filter(Objects::nonNull)
+                .forEach(reservationResponse -> {
+                    try {
+                        reservationService.release(reservationResponse.getReservationNumber());
+                    } catch (RuntimeException e) {
+                        cause.addSuppressed(e);
+                    }
+                });
+    }
+
+    private static Map<String, Integer> getQuantitiesBySkuCode(ReservationRequest reservationRequest) {
+        return reservationRequest.getReservationItemDtoList().stream()
+                .collect(Collectors.toMap(ReservationItemDto::getSkuCode, ReservationItemDto::getQuantity, Integer::sum));
+    }
+
+}
@@ -0,0 +1,21 @@
+package hu.pantasandor.inventoryservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservationBatchRequest {
+
+    @NotEmpty
+    private List<@Valid ReservationRequest> reservationRequestList;
+
+}
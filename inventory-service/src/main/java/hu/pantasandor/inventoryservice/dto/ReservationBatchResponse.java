@@ -0,0 +1,22 @@
+package hu.pantasandor.inventoryservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Holds one entry per request of the batch, in the same order. Requests that could not be reserved have a
+ * {@code null} entry.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservationBatchResponse {
+
+    private List<ReservationResponse> reservationResponseList;
+
+}
@@ -0,0 +1,23 @@
+package hu.pantasandor.inventoryservice.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservationItemDto {
+
+    @NotEmpty
+    private String skuCode;
+    @NotNull
+    @Positive
+    private Integer quantity;
+
+}
@@ -0,0 +1,12 @@
+package hu.pantasandor.inventoryservice.error;
+
+import java.util.Collection;
+
+import static org.springframework.http.HttpStatus.CONFLICT;
+
+public class InsufficientStockException extends InventoryException {
+
+    public InsufficientStockException(Collection<String> skuCodes) {
+        super(CONFLICT, "/inventory/insufficient-stock", "Not enough stock for sku codes " + skuCodes);
+    }
+}
@@ -0,0 +1,21 @@
+package hu.pantasandor.inventoryservice.error;
+
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.ErrorResponseException;
+
+import java.net.URI;
+
+public abstract class InventoryException extends ErrorResponseException {
+
+    public InventoryException(HttpStatusCode httpStatusCode, String type, String detail) {
+        super(httpStatusCode, createProblemDetail(httpStatusCode, type, detail), null);
+    }
+
+    private static ProblemDetail createProblemDetail(HttpStatusCode httpStatusCode, String type, String detail) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(httpStatusCode, detail);
+        problemDetail.setType(URI.create(type));
+        return problemDetail;
+    }
+
+}
@@ -0,0 +1,10 @@
+package hu.pantasandor.inventoryservice.error;
+
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+public class ReservationNotFoundException extends InventoryException {
+
+    public ReservationNotFoundException(String reservationNumber) {
+        super(NOT_FOUND, "/inventory/reservation-not-found", "Reservation with number " + reservationNumber + " not found");
+    }
+}
@@ -0,0 +1,10 @@
+package hu.pantasandor.inventoryservice.error;
+
+import static org.springframework.http.HttpStatus.CONFLICT;
+
+public class ReservationStateException extends InventoryException {
+
+    public ReservationStateException(String reservationNumber, String state) {
+        super(CONFLICT, "/inventory/reservation-state", "Reservation with number " + reservationNumber + " is " + state);
+    }
+}
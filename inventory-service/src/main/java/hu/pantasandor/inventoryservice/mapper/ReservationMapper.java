@@ -0,0 +1,13 @@
+package hu.pantasandor.inventoryservice.mapper;
+
+import hu.pantasandor.inventoryservice.dto.ReservationResponse;
+import hu.pantasandor.inventoryservice.model.Reservation;
+import org.mapstruct.Mapper;
+import org.mapstruct.factory.Mappers;
+
+@Mapper
+public interface ReservationMapper {
+    ReservationMapper INSTANCE = Mappers.getMapper(ReservationMapper.class);
+
+    ReservationResponse doMap(Reservation reservation);
+}
@@ -1,5 +1,6 @@
 package hu.pantasandor.inventoryservice.model;
 
+import hu.pantasandor.inventoryservice.cache.StockIndexEntityListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -8,6 +9,7 @@ import lombok.Setter;
 
 @Entity
 @Table(name = "t_inventories")
+@EntityListeners(StockIndexEntityListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
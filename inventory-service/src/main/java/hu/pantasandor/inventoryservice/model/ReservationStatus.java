@@ -0,0 +1,7 @@
+package hu.pantasandor.inventoryservice.model;
+
+public enum ReservationStatus {
+    PENDING,
+    CONFIRMED,
+    RELEASED
+}
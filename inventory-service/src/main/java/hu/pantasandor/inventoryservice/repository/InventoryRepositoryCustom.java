@@ -0,0 +1,22 @@
+package hu.pantasandor.inventoryservice.repository;
+
+import java.util.Map;
+
+public interface InventoryRepositoryCustom {
+
+    /**
+     * Decreases the quantity of every given sku code in a single conditional statement.
+     * Rows without enough quantity are left untouched.
+     *
+     * @return the number of updated rows
+     */
+    int decreaseQuantities(Map<String, Integer> quantitiesBySkuCode);
+
+    /**
+     * Increases the quantity of every given sku code in a single statement.
+     *
+     * @return the number of updated rows
+     */
+    int increaseQuantities(Map<String, Integer> quantitiesBySkuCode);
+
+}
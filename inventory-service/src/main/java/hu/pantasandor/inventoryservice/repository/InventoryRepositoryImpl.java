@@ -0,0 +1,56 @@
+package hu.pantasandor.inventoryservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class InventoryRepositoryImpl implements InventoryRepositoryCustom {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public int decreaseQuantities(Map<String, Integer> quantitiesBySkuCode) {
+        if (quantitiesBySkuCode.isEmpty()) {
+            return 0;
+        }
+
+        var parameters = new MapSqlParameterSource();
+        var quantityCase = buildQuantityCase(quantitiesBySkuCode, parameters);
+        var sql = "UPDATE t_inventories SET quantity = quantity - " + quantityCase +
+                " WHERE sku_code IN (:skuCodes) AND quantity >= " + quantityCase;
+
+        return jdbcTemplate.update(sql, parameters);
+    }
+
+    @Override
+    public int increaseQuantities(Map<String, Integer> quantitiesBySkuCode) {
+        if (quantitiesBySkuCode.isEmpty()) {
+            return 0;
+        }
+
+        var parameters = new MapSqlParameterSource();
+        var quantityCase = buildQuantityCase(quantitiesBySkuCode, parameters);
+        var sql = "UPDATE t_inventories SET quantity = quantity + " + quantityCase +
+                " WHERE sku_code IN (:skuCodes)";
+
+        return jdbcTemplate.update(sql, parameters);
+    }
+
+    private static String buildQuantityCase(Map<String, Integer> quantitiesBySkuCode, MapSqlParameterSource parameters) {
+        var quantityCase = new StringBuilder("CASE sku_code");
+        var index = 0;
+        for (var entry : quantitiesBySkuCode.entrySet()) {
+            quantityCase.append(" WHEN :sku").append(index).append(" THEN :qty").append(index);
+            parameters.addValue("sku" + index, entry.getKey());
+            parameters.addValue("qty" + index, entry.getValue());
+            index++;
+        }
+        parameters.addValue("skuCodes", quantitiesBySkuCode.keySet());
+
+        return quantityCase.append(" END").toString();
+    }
+
+}
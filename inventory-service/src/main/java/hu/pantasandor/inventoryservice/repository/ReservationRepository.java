@@ -0,0 +1,23 @@
+package hu.pantasandor.inventoryservice.repository;
+
+import hu.pantasandor.inventoryservice.model.Reservation;
+import hu.pantasandor.inventoryservice.model.ReservationStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Reservation> findByReservationNumber(String reservationNumber);
+
+    @Query("select r.reservationNumber from Reservation r where r.status = :status and r.expiresAt < :expiresAt order by r.expiresAt")
+    List<String> findReservationNumbers(ReservationStatus status, Instant expiresAt, Pageable pageable);
+
+}
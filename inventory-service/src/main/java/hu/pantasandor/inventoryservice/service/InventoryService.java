@@ -1,13 +1,18 @@
 package hu.pantasandor.inventoryservice.service;
 
+import hu.pantasandor.inventoryservice.cache.StockIndex;
 import hu.pantasandor.inventoryservice.model.Inventory;
 import hu.pantasandor.inventoryservice.repository.InventoryRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
 
 @Service
 @RequiredArgsConstructor
@@ -15,13 +20,19 @@ import java.util.List;
 public class InventoryService {
 
     private final InventoryRepository inventoryRepository;
+    private final StockIndex stockIndex;
 
-    @Transactional(readOnly = true)
     public List<Inventory> isInStock(List<String> skuCodes) {
-        log.info("isInStock skuCodes: {}", skuCodes);
-        var inventories = inventoryRepository.findBySkuCodeIn(skuCodes);
-        log.info("isInStock inventories: {}", inventories);
+        var inventories = stockIndex.getQuantities(skuCodes, this::loadQuantities).entrySet().stream()
+                .map(entry -> new Inventory(null, entry.getKey(), entry.getValue()))
+                .toList();
+        log.debug("isInStock: {} {}", kv("skuCodes", skuCodes.size()), kv("found", inventories.size()));
         return inventories;
     }
 
+    private Map<String, Integer> loadQuantities(Set<String> skuCodes) {
+        return inventoryRepository.findBySkuCodeIn(List.copyOf(skuCodes)).stream()
+                .collect(Collectors.toMap(Inventory::getSkuCode, Inventory::getQuantity, Integer::sum));
+    }
+
 }
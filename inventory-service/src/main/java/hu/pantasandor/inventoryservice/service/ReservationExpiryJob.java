@@ -0,0 +1,26 @@
+package hu.pantasandor.inventoryservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReservationExpiryJob {
+
+    private final ReservationService reservationService;
+
+    @Scheduled(fixedDelayString = "${inventory.reservation.expiry-check-interval}")
+    public void releaseExpiredReservations() {
+        var reservationNumbers = reservationService.findExpiredReservationNumbers();
+        if (reservationNumbers.isEmpty()) {
+            return;
+        }
+
+        log.info("releaseExpiredReservations: {}", reservationNumbers.size());
+        reservationNumbers.forEach(reservationService::releaseExpired);
+    }
+
+}
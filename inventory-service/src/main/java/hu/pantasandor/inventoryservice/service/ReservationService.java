@@ -0,0 +1,127 @@
+package hu.pantasandor.inventoryservice.service;
+
+import hu.pantasandor.inventoryservice.cache.StockIndex;
+import hu.pantasandor.inventoryservice.config.ReservationProperties;
+import hu.pantasandor.inventoryservice.error.InsufficientStockException;
+import hu.pantasandor.inventoryservice.error.ReservationNotFoundException;
+import hu.pantasandor.inventoryservice.error.ReservationStateException;
+import hu.pantasandor.inventoryservice.model.Reservation;
+import hu.pantasandor.inventoryservice.model.ReservationLineItem;
+import hu.pantasandor.inventoryservice.repository.InventoryRepository;
+import hu.pantasandor.inventoryservice.repository.ReservationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static hu.pantasandor.inventoryservice.model.ReservationStatus.*;
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+@Service
+@Transactional
+@RequiredArgsConstructor
+@Slf4j
+public class ReservationService {
+
+    private final InventoryRepository inventoryRepository;
+    private final ReservationRepository reservationRepository;
+    private final ReservationProperties reservationProperties;
+    private final StockIndex stockIndex;
+
+    /**
+     * Reserves every sku code with a single conditional update. Either all the quantities are held or,
+     * if any of them is short, none of them.
+     */
+    public Reservation reserve(Map<String, Integer> quantitiesBySkuCode) {
+        var updated = inventoryRepository.decreaseQuantities(quantitiesBySkuCode);
+        if (updated != quantitiesBySkuCode.size()) {
+            throw new InsufficientStockException(quantitiesBySkuCode.keySet());
+        }
+        stockIndex.invalidateAfterCommit(quantitiesBySkuCode.keySet());
+
+        var reservation = new Reservation();
+        reservation.setReservationNumber(UUID.randomUUID().toString());
+        reservation.setStatus(PENDING);
+        reservation.setExpiresAt(Instant.now().plus(reservationProperties.ttl()));
+
+        var reservationLineItemList = quantitiesBySkuCode.entrySet().stream()
+                .map(entry -> new ReservationLineItem(null, entry.getKey(), entry.getValue(), reservation))
+                .toList();
+        reservation.setReservationLineItemList(reservationLineItemList);
+
+        var saved = reservationRepository.save(reservation);
+        log.info("reserve: {} {}", kv("reservationNumber", saved.getReservationNumber()),
+                kv("skuCodes", quantitiesBySkuCode.size()));
+
+        return saved;
+    }
+
+    public void confirm(String reservationNumber) {
+        var reservation = getReservation(reservationNumber);
+        if (reservation.getStatus() == CONFIRMED) {
+            return;
+        }
+        if (reservation.getStatus() == RELEASED) {
+            throw new ReservationStateException(reservationNumber, "released");
+        }
+        if (reservation.getExpiresAt().isBefore(Instant.now())) {
+            throw new ReservationStateException(reservationNumber, "expired");
+        }
+
+        reservation.setStatus(CONFIRMED);
+        log.info("confirm: {}", kv("reservationNumber", reservationNumber));
+    }
+
+    public void release(String reservationNumber) {
+        var reservation = getReservation(reservationNumber);
+        if (reservation.getStatus() == RELEASED) {
+            return;
+        }
+        if (reservation.getStatus() == CONFIRMED) {
+            throw new ReservationStateException(reservationNumber, "confirmed");
+        }
+
+        doRelease(reservation);
+    }
+
+    /**
+     * Releases a pending reservation whose hold is over. Reservations confirmed or released in the meantime are
+     * left alone.
+     */
+    public void releaseExpired(String reservationNumber) {
+        reservationRepository.findByReservationNumber(reservationNumber)
+                .filter(reservation -> reservation.getStatus() == PENDING)
+                .filter(reservation -> reservation.getExpiresAt().isBefore(Instant.now()))
+                .ifPresent(this::doRelease);
+    }
+
+    @Transactional(readOnly = true)
+    public List<String> findExpiredReservationNumbers() {
+        var pageable = PageRequest.of(0, reservationProperties.expiryBatchSize());
+        return reservationRepository.findReservationNumbers(PENDING, Instant.now(), pageable);
+    }
+
+    private Reservation getReservation(String reservationNumber) {
+        return reservationRepository.findByReservationNumber(reservationNumber)
+                .orElseThrow(() -> new ReservationNotFoundException(reservationNumber));
+    }
+
+    private void doRelease(Reservation reservation) {
+        var quantitiesBySkuCode = reservation.getReservationLineItemList().stream()
+                .collect(Collectors.toMap(ReservationLineItem::getSkuCode, ReservationLineItem::getQuantity, Integer::sum));
+        inventoryRepository.increaseQuantities(quantitiesBySkuCode);
+        stockIndex.invalidateAfterCommit(quantitiesBySkuCode.keySet());
+
+        reservation.setStatus(RELEASED);
+        log.info("release: {} {}", kv("reservationNumber", reservation.getReservationNumber()),
+                kv("skuCodes", quantitiesBySkuCode.size()));
+    }
+
+}
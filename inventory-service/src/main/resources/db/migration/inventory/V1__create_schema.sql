@@ -0,0 +1,14 @@
+-- the schema hibernate generated before the migrations, which existing databases are baselined at
+create table t_inventories (quantity integer, id bigint not null, sku_code varchar(255), primary key (id)) engine=InnoDB;
+create table t_inventories_seq (next_val bigint) engine=InnoDB;
+insert into t_inventories_seq values (1);
+
+create table t_reservations (expires_at datetime(6), id bigint not null, reservation_number varchar(255), status enum ('CONFIRMED','PENDING','RELEASED'), primary key (id)) engine=InnoDB;
+create table t_reservations_seq (next_val bigint) engine=InnoDB;
+insert into t_reservations_seq values (1);
+
+create table t_reservation_line_items (quantity integer, id bigint not null, reservation_id bigint, sku_code varchar(255), primary key (id)) engine=InnoDB;
+create table t_reservation_line_items_seq (next_val bigint) engine=InnoDB;
+insert into t_reservation_line_items_seq values (1);
+
+alter table t_reservation_line_items add constraint fk_reservation_line_items_reservation_id foreign key (reservation_id) references t_reservations (id);
@@ -0,0 +1,10 @@
+-- one row per sku code, also serves the set-based quantity updates
+create unique index ux_inventories_sku_code on t_inventories (sku_code);
+-- covers findBySkuCodeIn, the primary key is part of every secondary index
+create index ix_inventories_sku_code_quantity on t_inventories (sku_code, quantity);
+
+create unique index ux_reservations_reservation_number on t_reservations (reservation_number);
+-- expired reservation lookup, ordered by expires_at
+create index ix_reservations_status_expires_at on t_reservations (status, expires_at);
+
+create index ix_reservation_line_items_reservation_id on t_reservation_line_items (reservation_id);
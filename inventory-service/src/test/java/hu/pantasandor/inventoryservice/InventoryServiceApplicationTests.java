@@ -1,8 +1,15 @@
 package hu.pantasandor.inventoryservice;
 
+import hu.pantasandor.inventoryservice.cache.StockIndex;
+import hu.pantasandor.inventoryservice.controller.InventoryController;
+import hu.pantasandor.inventoryservice.controller.ReservationController;
 import hu.pantasandor.inventoryservice.dto.InventoryResponse;
+import hu.pantasandor.inventoryservice.dto.ReservationItemDto;
+import hu.pantasandor.inventoryservice.dto.ReservationRequest;
+import hu.pantasandor.inventoryservice.dto.ReservationResponse;
 import hu.pantasandor.inventoryservice.model.Inventory;
 import hu.pantasandor.inventoryservice.repository.InventoryRepository;
+import hu.pantasandor.inventoryservice.repository.ReservationRepository;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,14 +21,20 @@ import org.springframework.web.util.UriBuilder;
 import org.testcontainers.containers.MySQLContainer;
 
 import java.net.URI;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static hu.pantasandor.inventoryservice.controller.InventoryController.API_URL;
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -41,6 +54,8 @@ public class InventoryServiceApplicationTests {
     private static MySQLContainer<?> mySQLContainer = new MySQLContainer<>("mysql:8.0");
 
     private final InventoryRepository inventoryRepository;
+    private final ReservationRepository reservationRepository;
+    private final StockIndex stockIndex;
     private final WebTestClient webClient;
 
     @BeforeAll
@@ -62,6 +77,7 @@ public class InventoryServiceApplicationTests {
 
     @BeforeEach
     private void setUp() {
+        reservationRepository.deleteAll();
         inventoryRepository.deleteAll();
     }
 
@@ -157,6 +173,170 @@ public class InventoryServiceApplicationTests {
                 ));
     }
 
+    @Test
+    @DisplayName("Should get bulk availability in request order")
+    public void shouldGetBulkAvailability() {
+        inventoryRepository.saveAll(List.of(
+                getInventory(VALID_SKU_CODE, VALID_QUANTITY),
+                getInventory(VALID_SKU_CODE_2, INVALID_QUANTITY)
+        ));
+
+        webClient.post()
+                .uri(API_URL + "/availability")
+                .contentType(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .bodyValue(List.of(VALID_SKU_CODE_2, INVALID_SKU_CODE, VALID_SKU_CODE, VALID_SKU_CODE_2))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(InventoryResponse.class)
+                .value(responses -> responses, contains(
+                        getInventoryResponse(VALID_SKU_CODE_2, false),
+                        getInventoryResponse(INVALID_SKU_CODE, false),
+                        getInventoryResponse(VALID_SKU_CODE, true),
+                        getInventoryResponse(VALID_SKU_CODE_2, false)
+                ));
+    }
+
+    @Test
+    @DisplayName("Should get bulk availability as bitset")
+    public void shouldGetBulkAvailabilityAsBitset() {
+        inventoryRepository.saveAll(List.of(
+                getInventory(VALID_SKU_CODE, VALID_QUANTITY),
+                getInventory(VALID_SKU_CODE_2, INVALID_QUANTITY)
+        ));
+
+        var bytes = webClient.post()
+                .uri(API_URL + "/availability")
+                .contentType(APPLICATION_JSON)
+                .accept(InventoryController.BITSET)
+                .bodyValue(List.of(VALID_SKU_CODE_2, INVALID_SKU_CODE, VALID_SKU_CODE))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+
+        assertEquals(BitSet.valueOf(new byte[]{0b100}), BitSet.valueOf(bytes));
+    }
+
+    @Test
+    @DisplayName("Should reserve stock")
+    public void shouldReserveStock() {
+        inventoryRepository.saveAll(List.of(
+                getInventory(VALID_SKU_CODE, VALID_QUANTITY),
+                getInventory(VALID_SKU_CODE_2, VALID_QUANTITY)
+        ));
+
+        webClient.post()
+                .uri(ReservationController.API_URL)
+                .contentType(APPLICATION_JSON)
+                .bodyValue(getReservationRequest(VALID_SKU_CODE, VALID_SKU_CODE_2))
+                .exchange()
+                .expectStatus()
+                .isCreated()
+                .expectBody(ReservationResponse.class)
+                .value(ReservationResponse::getReservationNumber, notNullValue());
+
+        assertEquals(1, reservationRepository.count());
+        assertTrue(inventoryRepository.findAll().stream().allMatch(inventory -> inventory.getQuantity() == 0));
+    }
+
+    @Test
+    @DisplayName("Should not reserve stock partially")
+    public void shouldNotReserveStockPartially() {
+        inventoryRepository.saveAll(List.of(
+                getInventory(VALID_SKU_CODE, VALID_QUANTITY),
+                getInventory(VALID_SKU_CODE_2, INVALID_QUANTITY)
+        ));
+
+        webClient.post()
+                .uri(ReservationController.API_URL)
+                .contentType(APPLICATION_JSON)
+                .bodyValue(getReservationRequest(VALID_SKU_CODE, VALID_SKU_CODE_2))
+                .exchange()
+                .expectStatus()
+                .isEqualTo(CONFLICT);
+
+        assertEquals(0, reservationRepository.count());
+        assertEquals(VALID_QUANTITY, inventoryRepository.findBySkuCodeIn(List.of(VALID_SKU_CODE)).get(0).getQuantity());
+    }
+
+    @Test
+    @DisplayName("Should release reserved stock")
+    public void shouldReleaseReservedStock() {
+        inventoryRepository.save(getInventory(VALID_SKU_CODE, VALID_QUANTITY));
+
+        var reservationResponse = webClient.post()
+                .uri(ReservationController.API_URL)
+                .contentType(APPLICATION_JSON)
+                .bodyValue(getReservationRequest(VALID_SKU_CODE))
+                .exchange()
+                .expectStatus()
+                .isCreated()
+                .expectBody(ReservationResponse.class)
+                .returnResult()
+                .getResponseBody();
+        assertEquals(INVALID_QUANTITY, inventoryRepository.findBySkuCodeIn(List.of(VALID_SKU_CODE)).get(0).getQuantity());
+
+        webClient.delete()
+                .uri(ReservationController.API_URL + "/" + reservationResponse.getReservationNumber())
+                .exchange()
+                .expectStatus()
+                .isNoContent();
+
+        assertEquals(VALID_QUANTITY, inventoryRepository.findBySkuCodeIn(List.of(VALID_SKU_CODE)).get(0).getQuantity());
+    }
+
+    @Test
+    @DisplayName("Should get stock result written after the stock was indexed")
+    public void shouldGetStockResultWrittenAfterTheStockWasIndexed() {
+        inventoryRepository.save(getInventory(VALID_SKU_CODE, VALID_QUANTITY));
+        expectInStock(VALID_SKU_CODE, true);
+
+        reserve(VALID_SKU_CODE);
+
+        expectInStock(VALID_SKU_CODE, false);
+    }
+
+    @Test
+    @DisplayName("Should not index stock loaded before a write")
+    public void shouldNotIndexStockLoadedBeforeAWrite() {
+        inventoryRepository.save(getInventory(VALID_SKU_CODE, VALID_QUANTITY));
+
+        var quantities = stockIndex.getQuantities(List.of(VALID_SKU_CODE), skuCodes -> {
+            var loaded = inventoryRepository.findBySkuCodeIn(List.copyOf(skuCodes)).stream()
+                    .collect(Collectors.toMap(Inventory::getSkuCode, Inventory::getQuantity));
+            // committed and invalidated while the quantity read above is on its way into the index
+            reserve(VALID_SKU_CODE);
+            return loaded;
+        });
+        assertEquals(Map.of(VALID_SKU_CODE, VALID_QUANTITY), quantities);
+
+        expectInStock(VALID_SKU_CODE, false);
+    }
+
+    private void reserve(String... skuCodes) {
+        webClient.post()
+                .uri(ReservationController.API_URL)
+                .contentType(APPLICATION_JSON)
+                .bodyValue(getReservationRequest(skuCodes))
+                .exchange()
+                .expectStatus()
+                .isCreated();
+    }
+
+    private void expectInStock(String skuCode, boolean isInStock) {
+        webClient.get()
+                .uri(builder -> buildUri(builder, API_URL, skuCode))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(InventoryResponse.class)
+                .value(responses -> responses, contains(getInventoryResponse(skuCode, isInStock)));
+    }
+
     private static URI buildUri(UriBuilder builder, String url, String... skuCodes) {
         builder.path(url);
         if (skuCodes != null && skuCodes.length > 0) {
@@ -166,6 +346,14 @@ public class InventoryServiceApplicationTests {
         return builder.build();
     }
 
+    private ReservationRequest getReservationRequest(String... skuCodes) {
+        var reservationItemDtoList = Arrays.stream(skuCodes)
+                .map(skuCode -> ReservationItemDto.builder().skuCode(skuCode).quantity(VALID_QUANTITY).build())
+                .toList();
+
+        return ReservationRequest.builder().reservationItemDtoList(reservationItemDtoList).build();
+    }
+
     private InventoryResponse getInventoryResponse(String skuCode, boolean isInStock) {
         return InventoryResponse.builder().skuCode(skuCode).isInStock(isInStock).build();
     }
@@ -0,0 +1,106 @@
+package hu.pantasandor.orderservice.batch;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Collects items submitted by concurrent callers and hands them to the batch function in groups of at most
+ * {@code maxSize} items, waiting at most {@code maxDelay} for a group to fill up. The batch function returns one
+ * result per item in the same order; a {@code null} result completes the caller empty. A batch function completing
+ * without a list fails every caller of the batch.
+ */
+public class MicroBatcher<T, R> implements Disposable {
+
+    private static final Sinks.EmitFailureHandler RETRY_NON_SERIALIZED =
+            (signalType, emitResult) -> emitResult == Sinks.EmitResult.FAIL_NON_SERIALIZED;
+
+    private final Function<List<T>, Mono<List<R>>> batchFunction;
+    private final Sinks.Many<Pending<T, R>> sink = Sinks.many().unicast().onBackpressureBuffer();
+    private final DistributionSummary batchSize;
+    private final Timer batchWait;
+    private final Disposable subscription;
+
+    public MicroBatcher(String name, int maxSize, Duration maxDelay, Function<List<T>, Mono<List<R>>> batchFunction,
+                        MeterRegistry meterRegistry) {
+        this.batchFunction = batchFunction;
+        this.batchSize = DistributionSummary.builder(name + ".size")
+                .description("Number of items sent in one batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchWait = Timer.builder(name + ".wait")
+                .description("Time items wait for their batch to be sent")
+                .register(meterRegistry);
+        Gauge.builder(name + ".max-size", () -> maxSize)
+                .description("Maximum number of items in one batch")
+                .register(meterRegistry);
+        Gauge.builder(name + ".max-delay", maxDelay::toMillis)
+                .description("Maximum time in milliseconds an item waits for its batch")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+
+        this.subscription = sink.asFlux()
+                .bufferTimeout(maxSize, maxDelay)
+                .flatMap(this::flush)
+                .subscribe();
+    }
+
+    public Mono<R> submit(T item) {
+        return Mono.create(monoSink -> sink.emitNext(new Pending<>(item, monoSink, System.nanoTime()), RETRY_NON_SERIALIZED));
+    }
+
+    @Override
+    public void dispose() {
+        sink.emitComplete(RETRY_NON_SERIALIZED);
+        subscription.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return subscription.isDisposed();
+    }
+
+    private Mono<Void> flush(List<Pending<T, R>> batch) {
+        var now = System.nanoTime();
+        batch.forEach(pending -> batchWait.record(Duration.ofNanos(now - pending.submittedAt())));
+        batchSize.record(batch.size());
+
+        var items = batch.stream().map(Pending::item).toList();
+        return Mono.defer(() -> batchFunction.apply(items))
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("expected " + batch.size() + " results but got none")))
+                .doOnNext(results -> complete(batch, results))
+                .doOnError(e -> batch.forEach(pending -> pending.sink().error(e)))
+                .then()
+                .onErrorResume(e -> Mono.empty());
+    }
+
+    private static <T, R> void complete(List<Pending<T, R>> batch, List<R> results) {
+        if (results.size() != batch.size()) {
+            var e = new IllegalStateException("expected " + batch.size() + " results but got " + results.size());
+            batch.forEach(pending -> pending.sink().error(e));
+            return;
+        }
+
+        for (var i = 0; i < batch.size(); i++) {
+            var result = results.get(i);
+            if (result == null) {
+                batch.get(i).sink().success();
+            } else {
+                batch.get(i).sink().success(result);
+            }
+        }
+    }
+
+    private record Pending<T, R>(T item, MonoSink<R> sink, long submittedAt) {
+    }
+
+}
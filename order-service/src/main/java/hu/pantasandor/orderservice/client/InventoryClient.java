@@ -0,0 +1,141 @@
+package hu.pantasandor.orderservice.client;
+
+import hu.pantasandor.orderservice.batch.MicroBatcher;
+import hu.pantasandor.orderservice.config.InventoryBatchProperties;
+import hu.pantasandor.orderservice.dto.InventoryResponse;
+import hu.pantasandor.orderservice.dto.OrderLineItemDto;
+import hu.pantasandor.orderservice.dto.ReservationBatchRequest;
+import hu.pantasandor.orderservice.dto.ReservationBatchResponse;
+import hu.pantasandor.orderservice.dto.ReservationRequest;
+import hu.pantasandor.orderservice.dto.ReservationResponse;
+import hu.pantasandor.orderservice.mapper.ReservationItemMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.BitSet;
+import java.util.List;
+
+@Component
+public class InventoryClient implements DisposableBean {
+
+    public static final String AVAILABILITY_URL = "http://inventory-service/api/v1/inventory/availability";
+    public static final String RESERVATION_URL = "http://inventory-service/api/v1/inventory/reservation";
+    public static final MediaType BITSET = MediaType.parseMediaType("application/x-inventory-bitset");
+
+    private final WebClient webClient;
+    private final InventoryResilience inventoryResilience;
+    private final MicroBatcher<ReservationRequest, ReservationResponse> reservationBatcher;
+    private final Duration maxReserveDuration;
+
+    public InventoryClient(WebClient.Builder webClientBuilder, InventoryBatchProperties inventoryBatchProperties,
+                           InventoryResilience inventoryResilience, MeterRegistry meterRegistry) {
+        this.webClient = webClientBuilder.build();
+        this.inventoryResilience = inventoryResilience;
+        this.reservationBatcher = !inventoryBatchProperties.enabled() ? null : new MicroBatcher<>(
+                "order.inventory.batch",
+                inventoryBatchProperties.maxSize(),
+                inventoryBatchProperties.maxDelay(),
+                this::reserveBatch,
+                meterRegistry);
+        this.maxReserveDuration = !inventoryBatchProperties.enabled()
+                ? inventoryResilience.maxCallDuration()
+                : inventoryResilience.maxCallDuration().plus(inventoryBatchProperties.maxDelay());
+    }
+
+    /**
+     * Looks up the availability of any number of sku codes in one request. The answer comes back as a bitset with
+     * one bit per sku code, unknown sku codes are reported as not in stock. As the lookup is idempotent, it is
+     * hedged.
+     */
+    public Mono<InventoryResponse[]> getAvailability(List<String> skuCodes) {
+        return inventoryResilience.hedgedCall(() -> webClient.post()
+                        .uri(AVAILABILITY_URL)
+                        .accept(BITSET)
+                        .bodyValue(skuCodes)
+                        .retrieve()
+                        .bodyToMono(byte[].class))
+                .defaultIfEmpty(new byte[0])
+                .map(bytes -> toInventoryResponses(skuCodes, BitSet.valueOf(bytes)));
+    }
+
+    /**
+     * Reserves every line item in one round trip. Completes empty if any of the products is not in stock. With
+     * batching enabled the reservation is sent together with the ones of concurrent orders.
+     */
+    public Mono<ReservationResponse> reserve(List<OrderLineItemDto> orderLineItemDtoList) {
+        var reservationItemDtoList = orderLineItemDtoList.stream()
+                .map(ReservationItemMapper.INSTANCE::doMap)
+                .toList();
+        var reservationRequest = new ReservationRequest(reservationItemDtoList);
+
+        if (reservationBatcher != null) {
+            return reservationBatcher.submit(reservationRequest);
+        }
+
+        return inventoryResilience.call(webClient.post()
+                .uri(RESERVATION_URL)
+                .bodyValue(reservationRequest)
+                .retrieve()
+                .bodyToMono(ReservationResponse.class)
+                .onErrorResume(WebClientResponseException.Conflict.class, e -> Mono.empty()));
+    }
+
+    /**
+     * Confirms the reservation. Confirming is idempotent, so a late call is hedged and a call whose outcome is
+     * unknown, e.g. one that timed out, is retried. The reservation is not hedged: inventory-service cannot tell a
+     * second request from a new order and would hold the stock twice.
+     */
+    public Mono<Void> confirm(String reservationNumber) {
+        return inventoryResilience.retriedCall(() -> webClient.post()
+                .uri(RESERVATION_URL + "/{reservationNumber}/confirm", reservationNumber)
+                .retrieve()
+                .bodyToMono(Void.class));
+    }
+
+    public Mono<Void> release(String reservationNumber) {
+        return inventoryResilience.call(webClient.delete()
+                .uri(RESERVATION_URL + "/{reservationNumber}", reservationNumber)
+                .retrieve()
+                .bodyToMono(Void.class));
+    }
+
+    /**
+     * The longest an attempt to place an order may take before it fails: a reservation, a confirm and a release.
+     */
+    public Duration maxPlaceDuration() {
+        return maxReserveDuration
+                .plus(inventoryResilience.maxRetriedCallDuration())
+                .plus(inventoryResilience.maxCallDuration());
+    }
+
+    @Override
+    public void destroy() {
+        if (reservationBatcher != null) {
+            reservationBatcher.dispose();
+        }
+    }
+
+    private static InventoryResponse[] toInventoryResponses(List<String> skuCodes, BitSet inStock) {
+        var inventoryResponses = new InventoryResponse[skuCodes.size()];
+        for (var i = 0; i < skuCodes.size(); i++) {
+            inventoryResponses[i] = new InventoryResponse(skuCodes.get(i), inStock.get(i));
+        }
+        return inventoryResponses;
+    }
+
+    private Mono<List<ReservationResponse>> reserveBatch(List<ReservationRequest> reservationRequestList) {
+        return inventoryResilience.call(webClient.post()
+                .uri(RESERVATION_URL + "/batch")
+                .bodyValue(new ReservationBatchRequest(reservationRequestList))
+                .retrieve()
+                .bodyToMono(ReservationBatchResponse.class)
+                .map(ReservationBatchResponse::getReservationResponseList));
+    }
+
+}
@@ -0,0 +1,154 @@
+package hu.pantasandor.orderservice.client;
+
+import hu.pantasandor.orderservice.config.InventoryResilienceProperties;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Guards the calls to inventory-service, so that a slow or hanging inventory-service does not hold up order-service:
+ * every call has a timeout, the circuit breaker rejects calls at once while most of the recent ones failed or were
+ * slow, and the bulkhead rejects calls above the configured number in flight. The state of both is published as the
+ * {@code resilience4j.circuitbreaker.*} and {@code resilience4j.bulkhead.*} meters.
+ */
+@Component
+public class InventoryResilience {
+
+    public static final String NAME = "inventory-service";
+
+    private final Duration timeout;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final InventoryResilienceProperties.Retry retry;
+    private final InventoryResilienceProperties.Hedge hedge;
+    private final Counter hedged;
+
+    public InventoryResilience(InventoryResilienceProperties inventoryResilienceProperties, MeterRegistry meterRegistry) {
+        var circuitBreakerProperties = inventoryResilienceProperties.circuitBreaker();
+        var circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(circuitBreakerProperties.failureRateThreshold())
+                .slowCallRateThreshold(circuitBreakerProperties.slowCallRateThreshold())
+                .slowCallDurationThreshold(circuitBreakerProperties.slowCallDurationThreshold())
+                .slidingWindowSize(circuitBreakerProperties.slidingWindowSize())
+                .minimumNumberOfCalls(circuitBreakerProperties.minimumNumberOfCalls())
+                .waitDurationInOpenState(circuitBreakerProperties.waitDurationInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(circuitBreakerProperties.permittedNumberOfCallsInHalfOpenState())
+                // a rejected request says nothing about the health of inventory-service
+                .ignoreException(InventoryResilience::isRejected)
+                .build());
+        var bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(inventoryResilienceProperties.bulkhead().maxConcurrentCalls())
+                // waiting for a permit would block the event loop
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+
+        this.timeout = inventoryResilienceProperties.timeout();
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(NAME);
+        this.bulkhead = bulkheadRegistry.bulkhead(NAME);
+        this.retry = inventoryResilienceProperties.retry();
+        this.hedge = inventoryResilienceProperties.hedge();
+        this.hedged = Counter.builder("order.inventory.hedged")
+                .description("Idempotent requests sent again because the first answer was late")
+                .register(meterRegistry);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry).bindTo(meterRegistry);
+    }
+
+    /**
+     * Subscribes to the call only if the circuit is closed and the bulkhead has room, and fails it with a
+     * {@link java.util.concurrent.TimeoutException} if it takes too long.
+     */
+    public <T> Mono<T> call(Mono<T> call) {
+        return call
+                .timeout(timeout)
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+    }
+
+    /**
+     * Like {@link #hedgedCall(Supplier)}, but a call that failed for another reason than a rejected request is made
+     * again with a backoff, up to the configured number of attempts. Only for idempotent calls. The last failure is
+     * passed on as it is.
+     */
+    public <T> Mono<T> retriedCall(Supplier<Mono<T>> call) {
+        return hedgedCall(call)
+                .retryWhen(Retry.backoff(retry.maxAttempts() - 1, retry.backoff())
+                        .filter(e -> !isRejected(e))
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    /**
+     * Like {@link #call(Mono)}, but if there is no answer after the hedge delay the call is made once more and the
+     * first successful answer is taken. Only for idempotent calls. A failed call waits for the other one, and only if
+     * both fail the last failure is passed on; a rejected request is passed on at once, as the other call would be
+     * rejected as well. The second call goes through the circuit breaker and the bulkhead as well, a rejection by
+     * either is its failure.
+     */
+    public <T> Mono<T> hedgedCall(Supplier<Mono<T>> call) {
+        if (!hedge.enabled()) {
+            return call(Mono.defer(call));
+        }
+
+        return Mono.defer(() -> {
+            var lastError = new AtomicReference<Throwable>();
+            var first = call(Mono.defer(call))
+                    .doOnError(lastError::set);
+            var second = Mono.delay(hedge.delay())
+                    .doOnNext(tick -> hedged.increment())
+                    .then(call(Mono.defer(call)))
+                    .doOnError(lastError::set);
+            return Flux.merge(first.materialize(), second.materialize())
+                    .filter(signal -> !signal.isOnError() || isRejected(signal.getThrowable()))
+                    .next()
+                    .switchIfEmpty(Mono.error(lastError::get))
+                    .<T>dematerialize();
+        });
+    }
+
+    /**
+     * The longest a {@link #call(Mono)} may take before it fails.
+     */
+    public Duration maxCallDuration() {
+        return timeout;
+    }
+
+    /**
+     * The longest a {@link #retriedCall(Supplier)} may take before it fails: every attempt may be hedged and every
+     * backoff may be stretched by half by its jitter.
+     */
+    public Duration maxRetriedCallDuration() {
+        var attempt = hedge.enabled() ? timeout.plus(hedge.delay()) : timeout;
+        var backoff = Duration.ZERO;
+        for (var i = 0; i < retry.maxAttempts() - 1; i++) {
+            backoff = backoff.plus(retry.backoff().multipliedBy(1L << i));
+        }
+        return attempt.multipliedBy(retry.maxAttempts()).plus(backoff.multipliedBy(3).dividedBy(2));
+    }
+
+    /**
+     * Whether inventory-service answered the call with a 4xx status, which making it again would not change.
+     */
+    public static boolean isRejected(Throwable e) {
+        return e instanceof WebClientResponseException responseException
+                && responseException.getStatusCode().is4xxClientError();
+    }
+
+}
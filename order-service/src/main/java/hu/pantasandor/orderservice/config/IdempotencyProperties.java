@@ -0,0 +1,15 @@
+package hu.pantasandor.orderservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @param maxSize       number of results kept in memory
+ * @param ttl           time a key is honored for
+ * @param lockTimeout   time after which a key still being placed is taken to be abandoned and placed anew
+ * @param purgeInterval time between two deletions of the expired keys
+ */
+@ConfigurationProperties(prefix = "order.idempotency")
+public record IdempotencyProperties(int maxSize, Duration ttl, Duration lockTimeout, Duration purgeInterval) {
+}
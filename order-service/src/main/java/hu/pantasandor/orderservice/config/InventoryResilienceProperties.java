@@ -0,0 +1,62 @@
+package hu.pantasandor.orderservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @param connectTimeout  time to open a connection to inventory-service
+ * @param responseTimeout time to wait for the response once the request is sent
+ * @param timeout         time a call may take as a whole, including waiting for a pooled connection
+ * @param circuitBreaker  opens when too many calls fail or are slow, so that calls fail fast until it recovers
+ * @param bulkhead        limits the calls to inventory-service in flight
+ * @param retry           retries idempotent calls that failed for another reason than a rejected request
+ * @param hedge           sends an idempotent request again if the first answer is late
+ */
+@ConfigurationProperties(prefix = "order.inventory.resilience")
+public record InventoryResilienceProperties(Duration connectTimeout,
+                                            Duration responseTimeout,
+                                            Duration timeout,
+                                            CircuitBreaker circuitBreaker,
+                                            Bulkhead bulkhead,
+                                            Retry retry,
+                                            Hedge hedge) {
+
+    /**
+     * @param failureRateThreshold                  percentage of failed calls opening the circuit
+     * @param slowCallRateThreshold                 percentage of slow calls opening the circuit
+     * @param slowCallDurationThreshold             time from which a call counts as slow
+     * @param slidingWindowSize                     number of recent calls the rates are computed of
+     * @param minimumNumberOfCalls                  number of calls needed before the rates are computed
+     * @param waitDurationInOpenState               time the circuit stays open before it lets test calls through
+     * @param permittedNumberOfCallsInHalfOpenState number of test calls deciding whether the circuit closes again
+     */
+    public record CircuitBreaker(float failureRateThreshold,
+                                 float slowCallRateThreshold,
+                                 Duration slowCallDurationThreshold,
+                                 int slidingWindowSize,
+                                 int minimumNumberOfCalls,
+                                 Duration waitDurationInOpenState,
+                                 int permittedNumberOfCallsInHalfOpenState) {
+    }
+
+    /**
+     * @param maxConcurrentCalls number of calls in flight, further calls are rejected at once
+     */
+    public record Bulkhead(int maxConcurrentCalls) {
+    }
+
+    /**
+     * @param maxAttempts number of attempts, including the first one
+     * @param backoff     time before the first retry, doubled for every further one
+     */
+    public record Retry(int maxAttempts, Duration backoff) {
+    }
+
+    /**
+     * @param enabled whether late idempotent requests are sent again
+     * @param delay   time after which the second request is sent
+     */
+    public record Hedge(boolean enabled, Duration delay) {
+    }
+}
@@ -0,0 +1,16 @@
+package hu.pantasandor.orderservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @param enabled          whether placed orders are projected into the order history read model
+ * @param maxSize          number of orders projected in one transaction
+ * @param maxDelay         time an order waits for others to be projected with
+ * @param catchUpBatchSize number of orders projected in one transaction when the orders missing from the read model
+ *                         are projected at startup
+ */
+@ConfigurationProperties(prefix = "order.history")
+public record OrderHistoryProperties(boolean enabled, int maxSize, Duration maxDelay, int catchUpBatchSize) {
+}
@@ -0,0 +1,21 @@
+package hu.pantasandor.orderservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @param pollInterval time between two looks for due outbox entries, an accepted order is dispatched at once anyway
+ * @param batchSize    number of outbox entries claimed in one transaction, at most the concurrency
+ * @param concurrency  number of outbox entries processed at the same time
+ * @param retryDelay   time after which an entry is tried again if its attempt did not complete, longer than an
+ *                     attempt may take with every inventory-service call timing out and retried
+ * @param maxAttempts  number of attempts after which the order fails
+ */
+@ConfigurationProperties(prefix = "order.outbox")
+public record OrderOutboxProperties(Duration pollInterval,
+                                    int batchSize,
+                                    int concurrency,
+                                    Duration retryDelay,
+                                    int maxAttempts) {
+}
@@ -0,0 +1,29 @@
+package hu.pantasandor.orderservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+public class SchedulerConfig {
+
+    /**
+     * Runs the blocking JPA calls of the reactive order flow with one thread less than the connection pool has
+     * connections. Hibernate fetches the next block of ids on a connection of its own while the sessions that need an
+     * id wait for it holding theirs, so with as many threads as connections the pool can run dry and the saves
+     * deadlock. On virtual threads the waiting threads are cheap, but their number is bounded the same way.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler jdbcScheduler(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                                   @Value("${order.threads.virtual.enabled:false}") boolean virtualThreads) {
+        var threads = Math.max(1, poolSize - 1);
+        if (virtualThreads) {
+            var threadFactory = Thread.ofVirtual().name("jdbc-", 0).factory();
+            return Schedulers.newBoundedElastic(threads, Integer.MAX_VALUE, threadFactory, 60);
+        }
+
+        return Schedulers.newBoundedElastic(threads, Integer.MAX_VALUE, "jdbc");
+    }
+}
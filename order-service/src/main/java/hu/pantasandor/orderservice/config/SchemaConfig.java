@@ -0,0 +1,33 @@
+package hu.pantasandor.orderservice.config;
+
+import hu.pantasandor.commons.schema.IndexVerifier;
+import hu.pantasandor.commons.schema.IndexVerifier.ExpectedIndex;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Verifies the indexes the queries of order-service rely on at startup, unless {@code order.schema.verify-indexes} is
+ * off.
+ */
+@Configuration
+@ConditionalOnProperty(name = "order.schema.verify-indexes", havingValue = "true", matchIfMissing = true)
+public class SchemaConfig {
+
+    @Bean
+    @DependsOnDatabaseInitialization
+    public IndexVerifier indexVerifier(DataSource dataSource) {
+        return new IndexVerifier(dataSource, List.of(
+                new ExpectedIndex("t_orders", "ux_orders_order_number", true, List.of("order_number")),
+                new ExpectedIndex("t_order_line_items", "ix_order_line_items_order_id", false, List.of("order_id")),
+                new ExpectedIndex("t_order_totals", "ux_order_totals_order_number", true, List.of("order_number")),
+                new ExpectedIndex("t_sku_sales", "ix_sku_sales_quantity", false, List.of("quantity")),
+                new ExpectedIndex("t_order_outbox", "ix_order_outbox_next_attempt_at", false, List.of("next_attempt_at")),
+                new ExpectedIndex("t_idempotency_keys", "ix_idempotency_keys_created_at", false, List.of("created_at"))));
+    }
+
+}
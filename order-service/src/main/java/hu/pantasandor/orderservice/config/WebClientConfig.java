@@ -1,16 +1,69 @@
 package hu.pantasandor.orderservice.config;
 
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.web.reactive.function.client.ReactorNettyHttpClientMapper;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorResourceFactory;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.resources.ConnectionProvider;
 
 @Configuration
 public class WebClientConfig {
 
     @Bean
     @LoadBalanced
-    public WebClient.Builder webClientBuilder() {
-        return WebClient.builder();
+    public WebClient.Builder webClientBuilder(ObjectProvider<WebClientCustomizer> webClientCustomizers) {
+        // the customizers of spring boot add the http.client.requests metrics and the configured connector
+        var webClientBuilder = WebClient.builder();
+        webClientCustomizers.orderedStream().forEach(webClientCustomizer -> webClientCustomizer.customize(webClientBuilder));
+        return webClientBuilder;
+    }
+
+    /**
+     * Connection pool of the web clients with the reactor.netty.connection.provider gauges enabled. Requests beyond
+     * the pending acquire limits fail at once instead of queueing up behind a slow service.
+     */
+    @Bean
+    public ReactorResourceFactory reactorResourceFactory(WebClientProperties webClientProperties) {
+        var reactorResourceFactory = new ReactorResourceFactory();
+        reactorResourceFactory.setUseGlobalResources(false);
+        reactorResourceFactory.setConnectionProviderSupplier(() -> ConnectionProvider.builder("webclient")
+                .maxConnections(webClientProperties.maxConnections())
+                .pendingAcquireMaxCount(webClientProperties.pendingAcquireMaxCount())
+                .pendingAcquireTimeout(webClientProperties.pendingAcquireTimeout())
+                .maxIdleTime(webClientProperties.maxIdleTime())
+                .maxLifeTime(webClientProperties.maxLifeTime())
+                .evictInBackground(webClientProperties.evictionInterval())
+                .metrics(true)
+                .build());
+        return reactorResourceFactory;
+    }
+
+    /**
+     * With h2c the connections start as HTTP/1.1 and are upgraded to HTTP/2 if the server supports it, so one
+     * connection carries many requests at once.
+     */
+    @Bean
+    public ReactorNettyHttpClientMapper protocolHttpClientMapper(WebClientProperties webClientProperties) {
+        return httpClient -> webClientProperties.h2c()
+                ? httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11)
+                : httpClient;
+    }
+
+    /**
+     * Timeouts of the connector of the web clients. They are not set per request, as the load balancer filter
+     * rebuilds the requests without their reactor netty settings.
+     */
+    @Bean
+    public ReactorNettyHttpClientMapper timeoutHttpClientMapper(InventoryResilienceProperties inventoryResilienceProperties) {
+        var connectTimeoutMillis = (int) inventoryResilienceProperties.connectTimeout().toMillis();
+        return httpClient -> httpClient
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis)
+                .responseTimeout(inventoryResilienceProperties.responseTimeout());
     }
 }
@@ -0,0 +1,27 @@
+package hu.pantasandor.orderservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Connection pool and protocol of the web clients calling the other services.
+ *
+ * @param maxConnections         connections per remote address
+ * @param pendingAcquireMaxCount requests waiting for a connection, further requests fail at once
+ * @param pendingAcquireTimeout  time a request waits for a connection
+ * @param maxIdleTime            time after which an idle connection is closed, below the keep-alive timeout of the
+ *                               servers so that they do not close it while a request is sent on it
+ * @param maxLifeTime            time after which a connection is closed, so that new instances get connections too
+ * @param evictionInterval       interval of closing the idle and expired connections in the background
+ * @param h2c                    whether HTTP/2 is negotiated with an upgrade of cleartext HTTP/1.1 connections
+ */
+@ConfigurationProperties(prefix = "order.web-client")
+public record WebClientProperties(int maxConnections,
+                                  int pendingAcquireMaxCount,
+                                  Duration pendingAcquireTimeout,
+                                  Duration maxIdleTime,
+                                  Duration maxLifeTime,
+                                  Duration evictionInterval,
+                                  boolean h2c) {
+}
@@ -0,0 +1,9 @@
+package hu.pantasandor.orderservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "order.persistence.write-behind")
+public record WriteBehindProperties(boolean enabled, int maxSize, Duration maxDelay) {
+}
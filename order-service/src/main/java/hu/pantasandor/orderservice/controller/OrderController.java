@@ -1,15 +1,36 @@
 package hu.pantasandor.orderservice.controller;
 
+import hu.pantasandor.orderservice.dto.OrderPageResponse;
 import hu.pantasandor.orderservice.dto.OrderRequest;
-import hu.pantasandor.orderservice.exception.OrderException;
+import hu.pantasandor.orderservice.dto.OrderResponse;
+import hu.pantasandor.orderservice.dto.OrderStatusResponse;
+import hu.pantasandor.orderservice.exception.InvalidContinuationTokenException;
+import hu.pantasandor.orderservice.exception.OrderNotFoundException;
+import hu.pantasandor.orderservice.idempotency.IdempotencyStore;
+import hu.pantasandor.orderservice.mapper.OrderMapper;
+import hu.pantasandor.orderservice.model.Order;
+import hu.pantasandor.orderservice.model.OrderStatus;
 import hu.pantasandor.orderservice.service.OrderService;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeoutException;
 
 import static hu.pantasandor.orderservice.controller.OrderController.API_URL;
+import static org.springframework.http.HttpStatus.ACCEPTED;
 import static org.springframework.http.HttpStatus.CREATED;
+import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 
 @RestController
 @RequestMapping(API_URL)
@@ -17,14 +38,129 @@ import static org.springframework.http.HttpStatus.CREATED;
 public class OrderController {
 
     public static final String API_URL = "/api/v1/order";
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final String PREFER = "Prefer";
+    public static final String PREFERENCE_APPLIED = "Preference-Applied";
+    public static final String RESPOND_ASYNC = "respond-async";
 
     private final OrderService orderService;
+    private final IdempotencyStore idempotencyStore;
 
+    /**
+     * Places the order, or accepts it and places it in the background if the client prefers {@code respond-async}.
+     * The status of an accepted order can be polled at the returned location. A request repeated with the same
+     * {@code Idempotency-Key} header gets the response of the first one instead of placing the order again.
+     */
     @PostMapping
     @ResponseStatus(CREATED)
-    public ResponseEntity<String> placeOrder(@RequestBody @Valid OrderRequest orderRequest) throws OrderException {
-        orderService.placeOrder(orderRequest);
-        return ResponseEntity.status(CREATED).body("Order Placed Successfully");
+    public Mono<ResponseEntity<?>> placeOrder(
+            @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            @RequestHeader HttpHeaders headers,
+            @RequestBody @Valid OrderRequest orderRequest) {
+        return prefersRespondAsync(headers)
+                ? acceptOrder(idempotencyKey, orderRequest)
+                : placeOrder(idempotencyKey, orderRequest);
+    }
+
+    /**
+     * An order whose confirmation could not be completed in time is answered like an accepted one, with its status,
+     * as it is placed in the background.
+     */
+    private Mono<ResponseEntity<?>> placeOrder(String idempotencyKey, OrderRequest orderRequest) {
+        return idempotencyStore.execute(idempotencyKey, "place", orderRequest,
+                        () -> orderService.placeOrder(orderRequest))
+                .<ResponseEntity<?>>map(result -> result.orderStatus() == OrderStatus.PENDING
+                        ? ResponseEntity.status(ACCEPTED)
+                        .location(statusLocation(result.orderNumber()))
+                        .body(new OrderStatusResponse(result.orderNumber(), result.orderStatus().name()))
+                        : ResponseEntity.status(CREATED).body("Order Placed Successfully"));
+    }
+
+    private Mono<ResponseEntity<?>> acceptOrder(String idempotencyKey, OrderRequest orderRequest) {
+        return idempotencyStore.execute(idempotencyKey, "accept", orderRequest,
+                        () -> orderService.acceptOrder(orderRequest))
+                .<ResponseEntity<?>>map(result -> ResponseEntity.status(ACCEPTED)
+                        .location(statusLocation(result.orderNumber()))
+                        .header(PREFERENCE_APPLIED, RESPOND_ASYNC)
+                        .body(new OrderStatusResponse(result.orderNumber(), result.orderStatus().name())));
+    }
+
+    /**
+     * Returns the order with its line items.
+     */
+    @GetMapping("/{orderNumber}")
+    @ResponseStatus(OK)
+    public Mono<OrderResponse> getOrder(@PathVariable String orderNumber) {
+        return orderService.getOrder(orderNumber)
+                .map(OrderMapper.INSTANCE::doMap)
+                .switchIfEmpty(Mono.error(() -> new OrderNotFoundException(orderNumber)));
+    }
+
+    @GetMapping("/{orderNumber}/status")
+    @ResponseStatus(OK)
+    public Mono<OrderStatusResponse> getOrderStatus(@PathVariable String orderNumber) {
+        return orderService.getOrderStatus(orderNumber)
+                .map(status -> new OrderStatusResponse(orderNumber, status.name()))
+                .switchIfEmpty(Mono.error(() -> new OrderNotFoundException(orderNumber)));
+    }
+
+    /**
+     * Returns one page of orders with their line items in the order they were placed. The continuation token of the
+     * response, if any, fetches the next page. The page size is capped at {@value MAX_PAGE_SIZE}.
+     */
+    @GetMapping
+    @ResponseStatus(OK)
+    public Mono<OrderPageResponse> getOrders(@RequestParam(defaultValue = "20") int size,
+                                             @RequestParam(required = false) String continuationToken) {
+        var pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        var afterId = continuationToken == null ? null : decodeContinuationToken(continuationToken);
+        return orderService.getOrders(afterId, pageSize + 1)
+                .map(orders -> {
+                    var hasNext = orders.size() > pageSize;
+                    var content = orders.stream()
+                            .limit(pageSize)
+                            .map(OrderMapper.INSTANCE::doMap)
+                            .toList();
+                    var nextContinuationToken = hasNext ? encodeContinuationToken(orders.get(pageSize - 1)) : null;
+                    return new OrderPageResponse(content, nextContinuationToken);
+                });
+    }
+
+    /**
+     * inventory-service is down, overloaded or too slow, the client may try again later.
+     */
+    @ExceptionHandler({CallNotPermittedException.class, BulkheadFullException.class, TimeoutException.class,
+            WebClientRequestException.class})
+    @ResponseStatus(SERVICE_UNAVAILABLE)
+    public void inventoryUnavailable() {
+    }
+
+    /**
+     * Whether one of the preferences is {@code respond-async}. The {@code Prefer} header is a list of preferences,
+     * each a case-insensitive token optionally followed by a value and parameters (RFC 7240), and may be sent more
+     * than once.
+     */
+    private static boolean prefersRespondAsync(HttpHeaders headers) {
+        return headers.getValuesAsList(PREFER).stream()
+                .map(preference -> preference.split("[=;]", 2)[0].trim())
+                .anyMatch(RESPOND_ASYNC::equalsIgnoreCase);
+    }
+
+    private static URI statusLocation(String orderNumber) {
+        return URI.create(API_URL + "/" + orderNumber + "/status");
+    }
+
+    private static String encodeContinuationToken(Order order) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.valueOf(order.getId()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Long decodeContinuationToken(String continuationToken) {
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(continuationToken), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidContinuationTokenException(continuationToken);
+        }
     }
 
 }
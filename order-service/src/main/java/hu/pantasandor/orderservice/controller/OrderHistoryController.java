@@ -0,0 +1,57 @@
+package hu.pantasandor.orderservice.controller;
+
+import hu.pantasandor.orderservice.dto.OrderTotalResponse;
+import hu.pantasandor.orderservice.dto.SkuSalesResponse;
+import hu.pantasandor.orderservice.exception.OrderNotFoundException;
+import hu.pantasandor.orderservice.exception.SkuSalesNotFoundException;
+import hu.pantasandor.orderservice.mapper.OrderHistoryMapper;
+import hu.pantasandor.orderservice.service.OrderHistoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static hu.pantasandor.orderservice.controller.OrderHistoryController.API_URL;
+import static org.springframework.http.HttpStatus.OK;
+
+/**
+ * Serves the order history read model, which lags a little behind the orders placed.
+ */
+@RestController
+@RequestMapping(API_URL)
+@RequiredArgsConstructor
+public class OrderHistoryController {
+
+    public static final String API_URL = "/api/v1/order-history";
+    public static final int MAX_TOP = 100;
+
+    private final OrderHistoryService orderHistoryService;
+
+    @GetMapping("/orders/{orderNumber}")
+    @ResponseStatus(OK)
+    public Mono<OrderTotalResponse> getOrderTotal(@PathVariable String orderNumber) {
+        return orderHistoryService.getOrderTotal(orderNumber)
+                .map(OrderHistoryMapper.INSTANCE::doMap)
+                .switchIfEmpty(Mono.error(() -> new OrderNotFoundException(orderNumber)));
+    }
+
+    @GetMapping("/skus/{skuCode}")
+    @ResponseStatus(OK)
+    public Mono<SkuSalesResponse> getSkuSales(@PathVariable String skuCode) {
+        return orderHistoryService.getSkuSales(skuCode)
+                .map(OrderHistoryMapper.INSTANCE::doMap)
+                .switchIfEmpty(Mono.error(() -> new SkuSalesNotFoundException(skuCode)));
+    }
+
+    /**
+     * Returns the sku codes sold in the largest quantities, at most {@value MAX_TOP}.
+     */
+    @GetMapping("/skus")
+    @ResponseStatus(OK)
+    public Mono<List<SkuSalesResponse>> getTopSkuSales(@RequestParam(defaultValue = "10") int top) {
+        return orderHistoryService.getTopSkuSales(Math.max(1, Math.min(top, MAX_TOP)))
+                .map(skuSales -> skuSales.stream().map(OrderHistoryMapper.INSTANCE::doMap).toList());
+    }
+
+}
@@ -1,6 +1,8 @@
 package hu.pantasandor.orderservice.dto;
 
 import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -16,6 +18,8 @@ public class OrderLineItemDto {
     @NotEmpty
     private String skuCode;
     private BigDecimal price;
+    @NotNull
+    @Positive
     private Integer quantity;
 
 }
@@ -0,0 +1,19 @@
+package hu.pantasandor.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderPageResponse {
+
+    private List<OrderResponse> content;
+    private String continuationToken;
+
+}
@@ -1,5 +1,6 @@
 package hu.pantasandor.orderservice.dto;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -13,6 +14,6 @@ import java.util.List;
 public class OrderRequest {
 
     @NotEmpty
-    List<OrderLineItemDto> orderLineItemDtoList;
+    List<@Valid OrderLineItemDto> orderLineItemDtoList;
 
 }
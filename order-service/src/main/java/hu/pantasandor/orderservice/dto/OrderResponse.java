@@ -0,0 +1,20 @@
+package hu.pantasandor.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderResponse {
+
+    private String orderNumber;
+    private String status;
+    private List<OrderLineItemDto> orderLineItemDtoList;
+
+}
@@ -0,0 +1,17 @@
+package hu.pantasandor.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderStatusResponse {
+
+    private String orderNumber;
+    private String status;
+
+}
@@ -0,0 +1,21 @@
+package hu.pantasandor.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderTotalResponse {
+
+    private String orderNumber;
+    private Integer lineItems;
+    private Integer quantity;
+    private BigDecimal total;
+
+}
@@ -0,0 +1,18 @@
+package hu.pantasandor.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservationBatchRequest {
+
+    private List<ReservationRequest> reservationRequestList;
+
+}
@@ -0,0 +1,21 @@
+package hu.pantasandor.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SkuSalesResponse {
+
+    private String skuCode;
+    private Long orders;
+    private Long quantity;
+    private BigDecimal revenue;
+
+}
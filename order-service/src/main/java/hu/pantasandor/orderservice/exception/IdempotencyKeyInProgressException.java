@@ -0,0 +1,10 @@
+package hu.pantasandor.orderservice.exception;
+
+import static org.springframework.http.HttpStatus.CONFLICT;
+
+public class IdempotencyKeyInProgressException extends OrderResponseException {
+
+    public IdempotencyKeyInProgressException(String idempotencyKey) {
+        super(CONFLICT, "/order/idempotency-key-in-progress", "The request with idempotency key " + idempotencyKey + " is still being processed");
+    }
+}
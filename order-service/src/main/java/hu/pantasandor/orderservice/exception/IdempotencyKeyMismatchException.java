@@ -0,0 +1,10 @@
+package hu.pantasandor.orderservice.exception;
+
+import static org.springframework.http.HttpStatus.UNPROCESSABLE_ENTITY;
+
+public class IdempotencyKeyMismatchException extends OrderResponseException {
+
+    public IdempotencyKeyMismatchException(String idempotencyKey) {
+        super(UNPROCESSABLE_ENTITY, "/order/idempotency-key-mismatch", "Idempotency key " + idempotencyKey + " was sent with another request");
+    }
+}
@@ -0,0 +1,10 @@
+package hu.pantasandor.orderservice.exception;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+public class InvalidContinuationTokenException extends OrderResponseException {
+
+    public InvalidContinuationTokenException(String continuationToken) {
+        super(BAD_REQUEST, "/order/invalid-continuation-token", "Continuation token " + continuationToken + " is invalid");
+    }
+}
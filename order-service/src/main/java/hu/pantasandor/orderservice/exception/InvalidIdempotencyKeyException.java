@@ -0,0 +1,10 @@
+package hu.pantasandor.orderservice.exception;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+public class InvalidIdempotencyKeyException extends OrderResponseException {
+
+    public InvalidIdempotencyKeyException(String idempotencyKey) {
+        super(BAD_REQUEST, "/order/invalid-idempotency-key", "Idempotency key " + idempotencyKey + " is invalid");
+    }
+}
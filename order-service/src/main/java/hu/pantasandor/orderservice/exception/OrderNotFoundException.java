@@ -0,0 +1,10 @@
+package hu.pantasandor.orderservice.exception;
+
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+public class OrderNotFoundException extends OrderResponseException {
+
+    public OrderNotFoundException(String orderNumber) {
+        super(NOT_FOUND, "/order/order-not-found", "Order with order number " + orderNumber + " not found");
+    }
+}
@@ -0,0 +1,10 @@
+package hu.pantasandor.orderservice.exception;
+
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+public class SkuSalesNotFoundException extends OrderResponseException {
+
+    public SkuSalesNotFoundException(String skuCode) {
+        super(NOT_FOUND, "/order/sku-sales-not-found", "No sales of sku code " + skuCode + " found");
+    }
+}
@@ -0,0 +1,211 @@
+package hu.pantasandor.orderservice.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import hu.pantasandor.orderservice.config.IdempotencyProperties;
+import hu.pantasandor.orderservice.exception.IdempotencyKeyInProgressException;
+import hu.pantasandor.orderservice.exception.IdempotencyKeyMismatchException;
+import hu.pantasandor.orderservice.exception.InvalidIdempotencyKeyException;
+import hu.pantasandor.orderservice.model.IdempotencyKey;
+import hu.pantasandor.orderservice.model.Order;
+import hu.pantasandor.orderservice.repository.IdempotencyKeyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Places an order at most once per idempotency key. Concurrent requests with the same key share one placement and
+ * later ones get its result: from a bounded in-memory cache while it holds the key, from the database afterwards or
+ * on another instance. The key is claimed in the database before the order is placed, so a duplicate arriving at
+ * another instance meanwhile is answered with 409. A failed placement releases the key so that a retry places the
+ * order again, and a claim left by an instance that died is taken over after the lock timeout. A key sent with
+ * another request is answered with 422.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore implements DisposableBean {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String CACHE_NAME = "order.idempotency.results";
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Scheduler jdbcScheduler;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyProperties idempotencyProperties;
+    private final AsyncCache<String, IdempotentResult> results;
+    private final Counter requests;
+    private final Counter placements;
+    private volatile Disposable purge;
+
+    public IdempotencyStore(IdempotencyKeyRepository idempotencyKeyRepository, TransactionTemplate transactionTemplate,
+                            Scheduler jdbcScheduler, ObjectMapper objectMapper,
+                            IdempotencyProperties idempotencyProperties, MeterRegistry meterRegistry) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcScheduler = jdbcScheduler;
+        this.objectMapper = objectMapper;
+        this.idempotencyProperties = idempotencyProperties;
+        this.results = Caffeine.newBuilder()
+                .maximumSize(idempotencyProperties.maxSize())
+                .expireAfterWrite(idempotencyProperties.ttl())
+                .recordStats()
+                .buildAsync();
+        this.requests = Counter.builder("order.idempotency.requests")
+                .description("Requests sent with an idempotency key")
+                .register(meterRegistry);
+        this.placements = Counter.builder("order.idempotency.placements")
+                .description("Orders placed for requests sent with an idempotency key, the rest got an earlier result")
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, results.synchronous(), CACHE_NAME);
+    }
+
+    /**
+     * Places the order unless the key was sent before with the same operation and request, in which case the result
+     * of that placement is returned. Without a key the order is simply placed.
+     */
+    public Mono<IdempotentResult> execute(String key, String operation, Object request,
+                                          Supplier<Mono<Order>> placement) {
+        if (key == null) {
+            return Mono.defer(placement).map(order -> IdempotentResult.of(null, order));
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return Mono.error(() -> new InvalidIdempotencyKeyException(key));
+        }
+
+        return Mono.defer(() -> {
+            requests.increment();
+            var requestHash = hash(operation, request);
+            // one subscriber cancelling must not cancel the placement the others wait for
+            var placed = results.get(key, (k, executor) -> place(k, requestHash, placement).toFuture());
+            return Mono.fromFuture(placed, true)
+                    .flatMap(result -> result.requestHash().equals(requestHash)
+                            ? Mono.just(result)
+                            : Mono.error(new IdempotencyKeyMismatchException(key)));
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startPurge() {
+        purge = Flux.interval(idempotencyProperties.purgeInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> Mono.fromCallable(this::purgeExpired)
+                        .subscribeOn(jdbcScheduler)
+                        .onErrorResume(e -> {
+                            log.warn("idempotency key purge failed", e);
+                            return Mono.empty();
+                        }), 1)
+                .subscribe();
+    }
+
+    @Override
+    public void destroy() {
+        var purge = this.purge;
+        if (purge != null) {
+            purge.dispose();
+        }
+    }
+
+    private Mono<IdempotentResult> place(String key, String requestHash, Supplier<Mono<Order>> placement) {
+        return Mono.fromCallable(() -> claim(key, requestHash))
+                .subscribeOn(jdbcScheduler)
+                .switchIfEmpty(Mono.defer(() -> {
+                    placements.increment();
+                    return Mono.defer(placement)
+                            .onErrorResume(e -> release(key).then(Mono.error(e)))
+                            .map(order -> IdempotentResult.of(requestHash, order))
+                            .flatMap(result -> complete(key, result).thenReturn(result));
+                }));
+    }
+
+    /**
+     * Claims the key for placing the order, returns {@code null} if claimed or the stored result if the order was
+     * placed before.
+     */
+    private IdempotentResult claim(String key, String requestHash) {
+        var now = Instant.now();
+        try {
+            idempotencyKeyRepository.insert(new IdempotencyKey(key, requestHash, null, null, now));
+            return null;
+        } catch (DuplicateKeyException e) {
+            var idempotencyKey = idempotencyKeyRepository.findById(key)
+                    // released by a failed placement just now, the client may try again
+                    .orElseThrow(() -> new IdempotencyKeyInProgressException(key));
+            if (idempotencyKey.getOrderNumber() != null) {
+                return IdempotentResult.of(idempotencyKey);
+            }
+            if (!idempotencyKey.getRequestHash().equals(requestHash)) {
+                throw new IdempotencyKeyMismatchException(key);
+            }
+
+            var createdAt = idempotencyKey.getCreatedAt();
+            if (createdAt.isAfter(now.minus(idempotencyProperties.lockTimeout())) || !takeOver(key, createdAt, now)) {
+                throw new IdempotencyKeyInProgressException(key);
+            }
+            log.warn("abandoned idempotency key taken over: {}", key);
+            return null;
+        }
+    }
+
+    private boolean takeOver(String key, Instant createdAt, Instant now) {
+        return transactionTemplate.execute(status -> idempotencyKeyRepository.takeOver(key, createdAt, now)) == 1;
+    }
+
+    private Mono<Void> complete(String key, IdempotentResult result) {
+        return Mono.<Void>fromRunnable(() -> transactionTemplate.executeWithoutResult(status ->
+                        idempotencyKeyRepository.complete(key, result.orderNumber(), result.orderStatus())))
+                .subscribeOn(jdbcScheduler);
+    }
+
+    private Mono<Void> release(String key) {
+        return Mono.<Void>fromRunnable(() -> transactionTemplate.executeWithoutResult(status ->
+                        idempotencyKeyRepository.release(key)))
+                .subscribeOn(jdbcScheduler)
+                .onErrorResume(e -> {
+                    log.warn("idempotency key release failed: {}", key, e);
+                    return Mono.empty();
+                });
+    }
+
+    private int purgeExpired() {
+        var createdBefore = Instant.now().minus(idempotencyProperties.ttl());
+        var purged = transactionTemplate.execute(status -> idempotencyKeyRepository.deleteCreatedBefore(createdBefore));
+        if (purged > 0) {
+            log.info("purgeExpired: {}", purged);
+        }
+        return purged;
+    }
+
+    private String hash(String operation, Object request) {
+        try {
+            var messageDigest = MessageDigest.getInstance("SHA-256");
+            messageDigest.update(operation.getBytes(StandardCharsets.UTF_8));
+            messageDigest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(messageDigest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,21 @@
+package hu.pantasandor.orderservice.idempotency;
+
+import hu.pantasandor.orderservice.model.IdempotencyKey;
+import hu.pantasandor.orderservice.model.Order;
+import hu.pantasandor.orderservice.model.OrderStatus;
+
+/**
+ * The outcome of placing an order, as much of it as a repeated request is answered with.
+ */
+public record IdempotentResult(String requestHash, String orderNumber, OrderStatus orderStatus) {
+
+    static IdempotentResult of(String requestHash, Order order) {
+        return new IdempotentResult(requestHash, order.getOrderNumber(), order.getStatus());
+    }
+
+    static IdempotentResult of(IdempotencyKey idempotencyKey) {
+        return new IdempotentResult(idempotencyKey.getRequestHash(), idempotencyKey.getOrderNumber(),
+                idempotencyKey.getOrderStatus());
+    }
+
+}
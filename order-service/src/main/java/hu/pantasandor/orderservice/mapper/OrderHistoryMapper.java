@@ -0,0 +1,17 @@
+package hu.pantasandor.orderservice.mapper;
+
+import hu.pantasandor.orderservice.dto.OrderTotalResponse;
+import hu.pantasandor.orderservice.dto.SkuSalesResponse;
+import hu.pantasandor.orderservice.model.OrderTotal;
+import hu.pantasandor.orderservice.model.SkuSales;
+import org.mapstruct.Mapper;
+import org.mapstruct.factory.Mappers;
+
+@Mapper
+public interface OrderHistoryMapper {
+    OrderHistoryMapper INSTANCE = Mappers.getMapper(OrderHistoryMapper.class);
+
+    OrderTotalResponse doMap(OrderTotal orderTotal);
+
+    SkuSalesResponse doMap(SkuSales skuSales);
+}
@@ -3,11 +3,15 @@ package hu.pantasandor.orderservice.mapper;
 import hu.pantasandor.orderservice.dto.OrderLineItemDto;
 import hu.pantasandor.orderservice.model.OrderLineItem;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 @Mapper
 public interface OrderLineItemMapper {
     OrderLineItemMapper INSTANCE = Mappers.getMapper(OrderLineItemMapper.class);
 
+    @Mapping(target = "order", ignore = true)
     OrderLineItem doMap(OrderLineItemDto orderLineItemDto);
+
+    OrderLineItemDto doMap(OrderLineItem orderLineItem);
 }
@@ -1,13 +1,19 @@
 package hu.pantasandor.orderservice.mapper;
 
 import hu.pantasandor.orderservice.dto.OrderRequest;
+import hu.pantasandor.orderservice.dto.OrderResponse;
 import hu.pantasandor.orderservice.model.Order;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
-@Mapper
+@Mapper(uses = OrderLineItemMapper.class)
 public interface OrderMapper {
     OrderMapper INSTANCE = Mappers.getMapper(OrderMapper.class);
 
+    @Mapping(target = "status", ignore = true)
     Order doMap(OrderRequest orderRequest);
+
+    @Mapping(target = "orderLineItemDtoList", source = "orderLineItemList")
+    OrderResponse doMap(Order order);
 }
@@ -0,0 +1,13 @@
+package hu.pantasandor.orderservice.mapper;
+
+import hu.pantasandor.orderservice.dto.OrderLineItemDto;
+import hu.pantasandor.orderservice.dto.ReservationItemDto;
+import org.mapstruct.Mapper;
+import org.mapstruct.factory.Mappers;
+
+@Mapper
+public interface ReservationItemMapper {
+    ReservationItemMapper INSTANCE = Mappers.getMapper(ReservationItemMapper.class);
+
+    ReservationItemDto doMap(OrderLineItemDto orderLineItemDto);
+}
@@ -0,0 +1,34 @@
+package hu.pantasandor.orderservice.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * An idempotency key sent with an order. The order number and status are empty while the order is being placed.
+ */
+@Entity
+@Table(name = "t_idempotency_keys")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyKey {
+
+    @Id
+    private String idempotencyKey;
+    private String requestHash;
+    private String orderNumber;
+    @Enumerated(EnumType.STRING)
+    private OrderStatus orderStatus;
+    private Instant createdAt;
+
+}
@@ -0,0 +1,35 @@
+package hu.pantasandor.orderservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * An order accepted but not placed yet, saved in the same transaction as the order and deleted once the order is
+ * placed or rejected. The reservation number is kept once the stock is reserved, so that a retry confirms the same
+ * reservation instead of reserving the stock twice.
+ */
+@Entity
+@Table(name = "t_order_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderOutbox {
+
+    @Id
+    private Long orderId;
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id")
+    private Order order;
+    private String reservationNumber;
+    private Integer attempts;
+    private Instant createdAt;
+    private Instant nextAttemptAt;
+
+}
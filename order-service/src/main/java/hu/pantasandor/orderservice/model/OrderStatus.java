@@ -0,0 +1,5 @@
+package hu.pantasandor.orderservice.model;
+
+public enum OrderStatus {
+    PENDING, PLACED, REJECTED, FAILED
+}
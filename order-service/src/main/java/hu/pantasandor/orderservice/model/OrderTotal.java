@@ -0,0 +1,31 @@
+package hu.pantasandor.orderservice.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+/**
+ * One row of the order history read model, written once after the order is placed.
+ */
+@Entity
+@Table(name = "t_order_totals")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderTotal {
+
+    @Id
+    private Long orderId;
+    private String orderNumber;
+    private Integer lineItems;
+    private Integer quantity;
+    private BigDecimal total;
+
+}
@@ -0,0 +1,30 @@
+package hu.pantasandor.orderservice.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+/**
+ * Sales of one sku code in the order history read model, incremented by every order placed.
+ */
+@Entity
+@Table(name = "t_sku_sales")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SkuSales {
+
+    @Id
+    private String skuCode;
+    private Long orders;
+    private Long quantity;
+    private BigDecimal revenue;
+
+}
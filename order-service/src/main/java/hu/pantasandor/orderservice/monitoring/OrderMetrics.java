@@ -0,0 +1,66 @@
+package hu.pantasandor.orderservice.monitoring;
+
+import hu.pantasandor.orderservice.dto.OrderLineItemDto;
+import hu.pantasandor.orderservice.dto.OrderRequest;
+import hu.pantasandor.orderservice.exception.OrderException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Meters of placing orders: the latency by outcome, the orders rejected because a product is not in stock and the
+ * size of the baskets.
+ */
+@Component
+public class OrderMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Counter outOfStock;
+    private final DistributionSummary basketLineItems;
+    private final DistributionSummary basketQuantity;
+
+    public OrderMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.outOfStock = Counter.builder("order.out-of-stock")
+                .description("Orders rejected because a product is not in stock")
+                .register(meterRegistry);
+        this.basketLineItems = DistributionSummary.builder("order.basket.line-items")
+                .description("Number of line items in one order")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.basketQuantity = DistributionSummary.builder("order.basket.quantity")
+                .description("Number of products in one order")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public <T> Mono<T> placeOrder(OrderRequest orderRequest, Mono<T> placeOrder) {
+        return Mono.defer(() -> {
+            var orderLineItemDtoList = orderRequest.getOrderLineItemDtoList();
+            basketLineItems.record(orderLineItemDtoList.size());
+            basketQuantity.record(orderLineItemDtoList.stream().mapToInt(OrderLineItemDto::getQuantity).sum());
+
+            var sample = Timer.start(meterRegistry);
+            return placeOrder
+                    .doOnSuccess(order -> sample.stop(placeOrderTimer("success")))
+                    .doOnError(OrderException.class, e -> {
+                        outOfStock.increment();
+                        sample.stop(placeOrderTimer("out_of_stock"));
+                    })
+                    .doOnError(e -> !(e instanceof OrderException), e -> sample.stop(placeOrderTimer("error")))
+                    .doOnCancel(() -> sample.stop(placeOrderTimer("cancelled")));
+        });
+    }
+
+    private Timer placeOrderTimer(String outcome) {
+        return Timer.builder("order.place")
+                .description("Time to place an order")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+}
@@ -0,0 +1,35 @@
+package hu.pantasandor.orderservice.repository;
+
+import hu.pantasandor.orderservice.model.IdempotencyKey;
+import hu.pantasandor.orderservice.model.OrderStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String>,
+        IdempotencyKeyRepositoryCustom {
+
+    @Modifying
+    @Query("update IdempotencyKey k set k.orderNumber = :orderNumber, k.orderStatus = :orderStatus" +
+            " where k.idempotencyKey = :idempotencyKey")
+    int complete(String idempotencyKey, String orderNumber, OrderStatus orderStatus);
+
+    /**
+     * Claims a key still being placed anew, if nobody else claimed it since it was read.
+     */
+    @Modifying
+    @Query("update IdempotencyKey k set k.createdAt = :now where k.idempotencyKey = :idempotencyKey" +
+            " and k.createdAt = :createdAt and k.orderNumber is null")
+    int takeOver(String idempotencyKey, Instant createdAt, Instant now);
+
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.idempotencyKey = :idempotencyKey and k.orderNumber is null")
+    int release(String idempotencyKey);
+
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.createdAt < :createdAt")
+    int deleteCreatedBefore(Instant createdAt);
+
+}
@@ -0,0 +1,13 @@
+package hu.pantasandor.orderservice.repository;
+
+import hu.pantasandor.orderservice.model.IdempotencyKey;
+
+public interface IdempotencyKeyRepositoryCustom {
+
+    /**
+     * Inserts the key, throwing {@link org.springframework.dao.DuplicateKeyException} if it exists, where a save
+     * would overwrite it.
+     */
+    void insert(IdempotencyKey idempotencyKey);
+
+}
@@ -0,0 +1,27 @@
+package hu.pantasandor.orderservice.repository;
+
+import hu.pantasandor.orderservice.model.IdempotencyKey;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Timestamp;
+
+@RequiredArgsConstructor
+public class IdempotencyKeyRepositoryImpl implements IdempotencyKeyRepositoryCustom {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insert(IdempotencyKey idempotencyKey) {
+        var sql = "INSERT INTO t_idempotency_keys (idempotency_key, request_hash, created_at)" +
+                " VALUES (:idempotencyKey, :requestHash, :createdAt)";
+        var parameters = new MapSqlParameterSource()
+                .addValue("idempotencyKey", idempotencyKey.getIdempotencyKey())
+                .addValue("requestHash", idempotencyKey.getRequestHash())
+                .addValue("createdAt", Timestamp.from(idempotencyKey.getCreatedAt()));
+
+        jdbcTemplate.update(sql, parameters);
+    }
+
+}
@@ -0,0 +1,35 @@
+package hu.pantasandor.orderservice.repository;
+
+import hu.pantasandor.orderservice.model.OrderOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface OrderOutboxRepository extends JpaRepository<OrderOutbox, Long> {
+
+    /**
+     * Locks the entries due at the given time, skipping the ones locked by other instances where the database
+     * supports it.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select o from OrderOutbox o where o.nextAttemptAt <= :now order by o.nextAttemptAt")
+    List<OrderOutbox> findDue(Instant now, Pageable pageable);
+
+    @Modifying
+    @Query("update OrderOutbox o set o.reservationNumber = :reservationNumber where o.orderId = :orderId")
+    int updateReservationNumber(long orderId, String reservationNumber);
+
+    @Modifying
+    @Query("delete from OrderOutbox o where o.orderId = :orderId")
+    int deleteByOrderId(long orderId);
+
+}
@@ -1,7 +1,51 @@
 package hu.pantasandor.orderservice.repository;
 
 import hu.pantasandor.orderservice.model.Order;
+import hu.pantasandor.orderservice.model.OrderStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    /**
+     * Fetches the order together with its line items in one query.
+     */
+    @EntityGraph(attributePaths = "orderLineItemList")
+    Optional<Order> findByOrderNumber(String orderNumber);
+
+    /**
+     * Returns the ids of one page of orders in id order. The line items are fetched by
+     * {@link #findByIdInOrderByIdAsc(Collection)}, as a limit applied to a fetch join would be applied in memory.
+     */
+    @Query("select o.id from Order o where o.id > :afterId order by o.id")
+    List<Long> findIdsAfter(long afterId, Pageable pageable);
+
+    /**
+     * Fetches the orders together with their line items in one query.
+     */
+    @EntityGraph(attributePaths = "orderLineItemList")
+    List<Order> findByIdInOrderByIdAsc(Collection<Long> ids);
+
+    /**
+     * Returns the ids of the placed orders after the given id that are missing from the order history read model.
+     */
+    @Query("select o.id from Order o where o.id > :afterId" +
+            " and o.status = hu.pantasandor.orderservice.model.OrderStatus.PLACED" +
+            " and not exists (select t.orderId from OrderTotal t where t.orderId = o.id) order by o.id")
+    List<Long> findIdsNotInHistoryAfter(long afterId, Pageable pageable);
+
+    @Query("select o.status from Order o where o.orderNumber = :orderNumber")
+    Optional<OrderStatus> findStatusByOrderNumber(String orderNumber);
+
+    @Modifying
+    @Query("update Order o set o.status = :status where o.id = :id")
+    int updateStatus(long id, OrderStatus status);
+
 }
@@ -0,0 +1,18 @@
+package hu.pantasandor.orderservice.repository;
+
+import hu.pantasandor.orderservice.model.OrderTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface OrderTotalRepository extends JpaRepository<OrderTotal, Long>, OrderTotalRepositoryCustom {
+
+    Optional<OrderTotal> findByOrderNumber(String orderNumber);
+
+    @Query("select t.orderId from OrderTotal t where t.orderId in :orderIds")
+    List<Long> findOrderIdsIn(Collection<Long> orderIds);
+
+}
@@ -0,0 +1,15 @@
+package hu.pantasandor.orderservice.repository;
+
+import hu.pantasandor.orderservice.model.OrderTotal;
+
+import java.util.Collection;
+
+public interface OrderTotalRepositoryCustom {
+
+    /**
+     * Inserts the order totals in one JDBC batch, without the select per row a merge of entities with assigned ids
+     * would take.
+     */
+    void insertAll(Collection<OrderTotal> orderTotals);
+
+}
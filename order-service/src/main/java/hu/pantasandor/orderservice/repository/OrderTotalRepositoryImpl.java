@@ -0,0 +1,35 @@
+package hu.pantasandor.orderservice.repository;
+
+import hu.pantasandor.orderservice.model.OrderTotal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.Collection;
+
+@RequiredArgsConstructor
+public class OrderTotalRepositoryImpl implements OrderTotalRepositoryCustom {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(Collection<OrderTotal> orderTotals) {
+        if (orderTotals.isEmpty()) {
+            return;
+        }
+
+        var sql = "INSERT INTO t_order_totals (order_id, order_number, line_items, quantity, total)" +
+                " VALUES (:orderId, :orderNumber, :lineItems, :quantity, :total)";
+        var parameters = orderTotals.stream()
+                .map(orderTotal -> new MapSqlParameterSource()
+                        .addValue("orderId", orderTotal.getOrderId())
+                        .addValue("orderNumber", orderTotal.getOrderNumber())
+                        .addValue("lineItems", orderTotal.getLineItems())
+                        .addValue("quantity", orderTotal.getQuantity())
+                        .addValue("total", orderTotal.getTotal()))
+                .toArray(MapSqlParameterSource[]::new);
+
+        jdbcTemplate.batchUpdate(sql, parameters);
+    }
+
+}
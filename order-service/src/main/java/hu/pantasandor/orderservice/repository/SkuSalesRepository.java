@@ -0,0 +1,13 @@
+package hu.pantasandor.orderservice.repository;
+
+import hu.pantasandor.orderservice.model.SkuSales;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface SkuSalesRepository extends JpaRepository<SkuSales, String>, SkuSalesRepositoryCustom {
+
+    List<SkuSales> findAllByOrderByQuantityDesc(Pageable pageable);
+
+}
@@ -0,0 +1,15 @@
+package hu.pantasandor.orderservice.repository;
+
+import hu.pantasandor.orderservice.model.SkuSales;
+
+import java.util.Collection;
+
+public interface SkuSalesRepositoryCustom {
+
+    /**
+     * Adds the given sales to the ones of their sku codes in one JDBC batch, creating the rows of new sku codes.
+     * The rows are locked in the order given, so callers passing them sorted by sku code cannot deadlock each other.
+     */
+    void addAll(Collection<SkuSales> skuSales);
+
+}
@@ -0,0 +1,36 @@
+package hu.pantasandor.orderservice.repository;
+
+import hu.pantasandor.orderservice.model.SkuSales;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.Collection;
+
+@RequiredArgsConstructor
+public class SkuSalesRepositoryImpl implements SkuSalesRepositoryCustom {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public void addAll(Collection<SkuSales> skuSales) {
+        if (skuSales.isEmpty()) {
+            return;
+        }
+
+        var sql = "INSERT INTO t_sku_sales (sku_code, orders, quantity, revenue)" +
+                " VALUES (:skuCode, :orders, :quantity, :revenue)" +
+                " ON DUPLICATE KEY UPDATE orders = orders + VALUES(orders), quantity = quantity + VALUES(quantity)," +
+                " revenue = revenue + VALUES(revenue)";
+        var parameters = skuSales.stream()
+                .map(sales -> new MapSqlParameterSource()
+                        .addValue("skuCode", sales.getSkuCode())
+                        .addValue("orders", sales.getOrders())
+                        .addValue("quantity", sales.getQuantity())
+                        .addValue("revenue", sales.getRevenue()))
+                .toArray(MapSqlParameterSource[]::new);
+
+        jdbcTemplate.batchUpdate(sql, parameters);
+    }
+
+}
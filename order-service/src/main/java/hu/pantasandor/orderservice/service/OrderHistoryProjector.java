@@ -0,0 +1,188 @@
+package hu.pantasandor.orderservice.service;
+
+import hu.pantasandor.orderservice.batch.MicroBatcher;
+import hu.pantasandor.orderservice.config.OrderHistoryProperties;
+import hu.pantasandor.orderservice.model.Order;
+import hu.pantasandor.orderservice.model.OrderLineItem;
+import hu.pantasandor.orderservice.model.OrderTotal;
+import hu.pantasandor.orderservice.model.SkuSales;
+import hu.pantasandor.orderservice.repository.OrderRepository;
+import hu.pantasandor.orderservice.repository.OrderTotalRepository;
+import hu.pantasandor.orderservice.repository.SkuSalesRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps the order history read model up to date: every committed order is added to its order total and the sales of
+ * its sku codes in the background, so placing an order does not wait for it. The orders of concurrent callers are
+ * projected together in one transaction. Projecting an order twice has no effect, so the orders missing from the read
+ * model, e.g. because the service stopped before they were projected, are projected again at startup.
+ */
+@Component
+@Slf4j
+public class OrderHistoryProjector implements DisposableBean {
+
+    private final OrderRepository orderRepository;
+    private final OrderTotalRepository orderTotalRepository;
+    private final SkuSalesRepository skuSalesRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Scheduler jdbcScheduler;
+    private final int catchUpBatchSize;
+    private final MicroBatcher<Order, Order> orderBatcher;
+    private final Counter projected;
+    private final Counter failed;
+
+    public OrderHistoryProjector(OrderRepository orderRepository, OrderTotalRepository orderTotalRepository,
+                                 SkuSalesRepository skuSalesRepository, TransactionTemplate transactionTemplate,
+                                 Scheduler jdbcScheduler, OrderHistoryProperties orderHistoryProperties,
+                                 MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.orderTotalRepository = orderTotalRepository;
+        this.skuSalesRepository = skuSalesRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcScheduler = jdbcScheduler;
+        this.catchUpBatchSize = orderHistoryProperties.catchUpBatchSize();
+        this.orderBatcher = !orderHistoryProperties.enabled() ? null : new MicroBatcher<>(
+                "order.history.projection",
+                orderHistoryProperties.maxSize(),
+                orderHistoryProperties.maxDelay(),
+                orders -> Mono.fromCallable(() -> projectAll(orders)).subscribeOn(jdbcScheduler),
+                meterRegistry);
+        this.projected = Counter.builder("order.history.projected")
+                .description("Orders added to the order history read model")
+                .register(meterRegistry);
+        this.failed = Counter.builder("order.history.failed")
+                .description("Orders that could not be added to the order history read model until the next startup")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Projects the committed order in the background.
+     */
+    public void project(Order order) {
+        if (orderBatcher == null) {
+            return;
+        }
+
+        orderBatcher.submit(order).subscribe(null, e -> {
+            failed.increment();
+            log.warn("order history projection failed: {}", order.getOrderNumber(), e);
+        });
+    }
+
+    /**
+     * Projects the orders that are missing from the read model, in id order and in batches.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUp() {
+        if (orderBatcher == null) {
+            return;
+        }
+
+        Mono.fromCallable(this::catchUpAll)
+                .subscribeOn(jdbcScheduler)
+                .subscribe(
+                        count -> log.info("order history caught up: {} orders", count),
+                        e -> log.warn("order history catch-up failed", e));
+    }
+
+    @Override
+    public void destroy() {
+        if (orderBatcher != null) {
+            orderBatcher.dispose();
+        }
+    }
+
+    private long catchUpAll() {
+        var count = 0L;
+        var afterId = 0L;
+        while (true) {
+            var ids = orderRepository.findIdsNotInHistoryAfter(afterId, PageRequest.ofSize(catchUpBatchSize));
+            if (ids.isEmpty()) {
+                return count;
+            }
+
+            projectAll(orderRepository.findByIdInOrderByIdAsc(ids));
+            count += ids.size();
+            afterId = ids.get(ids.size() - 1);
+        }
+    }
+
+    private List<Order> projectAll(List<Order> orders) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> apply(orders));
+        } catch (DuplicateKeyException e) {
+            // projected concurrently by the catch-up, the orders already projected are skipped the second time
+            transactionTemplate.executeWithoutResult(status -> apply(orders));
+        }
+        return orders;
+    }
+
+    private void apply(List<Order> orders) {
+        var projectedIds = new HashSet<>(orderTotalRepository.findOrderIdsIn(orders.stream().map(Order::getId).toList()));
+        var newOrders = orders.stream()
+                .filter(order -> projectedIds.add(order.getId()))
+                .toList();
+        if (newOrders.isEmpty()) {
+            return;
+        }
+
+        orderTotalRepository.insertAll(newOrders.stream().map(OrderHistoryProjector::orderTotal).toList());
+        // sorted by sku code, so that concurrent batches lock the rows in the same order
+        skuSalesRepository.addAll(skuSales(newOrders).values());
+        projected.increment(newOrders.size());
+    }
+
+    private static OrderTotal orderTotal(Order order) {
+        var orderLineItemList = order.getOrderLineItemList();
+        return new OrderTotal(
+                order.getId(),
+                order.getOrderNumber(),
+                orderLineItemList.size(),
+                orderLineItemList.stream().mapToInt(OrderLineItem::getQuantity).sum(),
+                orderLineItemList.stream().map(OrderHistoryProjector::lineTotal).reduce(BigDecimal.ZERO, BigDecimal::add));
+    }
+
+    private static Map<String, SkuSales> skuSales(List<Order> orders) {
+        var skuSales = new TreeMap<String, SkuSales>();
+        for (var order : orders) {
+            order.getOrderLineItemList().stream()
+                    .map(OrderLineItem::getSkuCode)
+                    .distinct()
+                    .map(skuCode -> sales(skuSales, skuCode))
+                    .forEach(sales -> sales.setOrders(sales.getOrders() + 1));
+            for (var orderLineItem : order.getOrderLineItemList()) {
+                var sales = sales(skuSales, orderLineItem.getSkuCode());
+                sales.setQuantity(sales.getQuantity() + orderLineItem.getQuantity());
+                sales.setRevenue(sales.getRevenue().add(lineTotal(orderLineItem)));
+            }
+        }
+        return skuSales;
+    }
+
+    private static SkuSales sales(Map<String, SkuSales> skuSales, String skuCode) {
+        return skuSales.computeIfAbsent(skuCode, code -> new SkuSales(code, 0L, 0L, BigDecimal.ZERO));
+    }
+
+    private static BigDecimal lineTotal(OrderLineItem orderLineItem) {
+        var price = orderLineItem.getPrice() == null ? BigDecimal.ZERO : orderLineItem.getPrice();
+        return price.multiply(BigDecimal.valueOf(orderLineItem.getQuantity()));
+    }
+
+}
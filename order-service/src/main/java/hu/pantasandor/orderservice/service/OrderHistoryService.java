@@ -0,0 +1,45 @@
+package hu.pantasandor.orderservice.service;
+
+import hu.pantasandor.orderservice.model.OrderTotal;
+import hu.pantasandor.orderservice.model.SkuSales;
+import hu.pantasandor.orderservice.repository.OrderTotalRepository;
+import hu.pantasandor.orderservice.repository.SkuSalesRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.List;
+
+/**
+ * Reads the order history read model on the jdbc scheduler. The reads only touch the read model tables, by primary
+ * key or by index, and take no locks, so they do not compete with placing orders.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderHistoryService {
+
+    private final OrderTotalRepository orderTotalRepository;
+    private final SkuSalesRepository skuSalesRepository;
+    private final Scheduler jdbcScheduler;
+
+    public Mono<OrderTotal> getOrderTotal(String orderNumber) {
+        return Mono.fromCallable(() -> orderTotalRepository.findByOrderNumber(orderNumber).orElse(null))
+                .subscribeOn(jdbcScheduler);
+    }
+
+    public Mono<SkuSales> getSkuSales(String skuCode) {
+        return Mono.fromCallable(() -> skuSalesRepository.findById(skuCode).orElse(null))
+                .subscribeOn(jdbcScheduler);
+    }
+
+    /**
+     * Returns the {@code limit} sku codes sold in the largest quantities.
+     */
+    public Mono<List<SkuSales>> getTopSkuSales(int limit) {
+        return Mono.fromCallable(() -> skuSalesRepository.findAllByOrderByQuantityDesc(PageRequest.ofSize(limit)))
+                .subscribeOn(jdbcScheduler);
+    }
+
+}
@@ -0,0 +1,246 @@
+package hu.pantasandor.orderservice.service;
+
+import hu.pantasandor.orderservice.client.InventoryClient;
+import hu.pantasandor.orderservice.config.OrderOutboxProperties;
+import hu.pantasandor.orderservice.mapper.OrderLineItemMapper;
+import hu.pantasandor.orderservice.model.Order;
+import hu.pantasandor.orderservice.model.OrderOutbox;
+import hu.pantasandor.orderservice.model.OrderStatus;
+import hu.pantasandor.orderservice.repository.OrderOutboxRepository;
+import hu.pantasandor.orderservice.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static hu.pantasandor.orderservice.model.OrderStatus.FAILED;
+import static hu.pantasandor.orderservice.model.OrderStatus.PLACED;
+import static hu.pantasandor.orderservice.model.OrderStatus.REJECTED;
+
+/**
+ * Places the orders accepted asynchronously. The due outbox entries are claimed in batches of at most as many entries
+ * as are processed at the same time: one transaction locks them, skipping the ones other instances hold, and pushes
+ * their next attempt back by the retry delay, so an entry whose attempt does not complete comes due again. As every
+ * claimed entry is processed at once, the retry delay only has to be longer than an attempt may take, which is
+ * checked at startup; otherwise another instance could claim an entry still being processed and reserve its stock
+ * again. The stock of each order is then reserved and confirmed without
+ * holding a database connection, and the order is marked placed or rejected together with the deletion of its entry.
+ * An order still not placed after the maximum number of attempts fails and its reservation, if any, is released.
+ */
+@Component
+@Slf4j
+public class OrderOutboxDispatcher implements DisposableBean {
+
+    private final OrderRepository orderRepository;
+    private final OrderOutboxRepository orderOutboxRepository;
+    private final InventoryClient inventoryClient;
+    private final OrderHistoryProjector orderHistoryProjector;
+    private final TransactionTemplate transactionTemplate;
+    private final Scheduler jdbcScheduler;
+    private final OrderOutboxProperties orderOutboxProperties;
+    private final int claimSize;
+    private final MeterRegistry meterRegistry;
+    private final Sinks.Many<Long> wakeUps = Sinks.many().multicast().directBestEffort();
+    private final Counter retried;
+    private final Timer lag;
+    private volatile Disposable subscription;
+
+    public OrderOutboxDispatcher(OrderRepository orderRepository, OrderOutboxRepository orderOutboxRepository,
+                                 InventoryClient inventoryClient, OrderHistoryProjector orderHistoryProjector,
+                                 TransactionTemplate transactionTemplate, Scheduler jdbcScheduler,
+                                 OrderOutboxProperties orderOutboxProperties, MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.orderOutboxRepository = orderOutboxRepository;
+        this.inventoryClient = inventoryClient;
+        this.orderHistoryProjector = orderHistoryProjector;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcScheduler = jdbcScheduler;
+        this.orderOutboxProperties = orderOutboxProperties;
+        this.claimSize = Math.min(orderOutboxProperties.batchSize(), orderOutboxProperties.concurrency());
+        this.meterRegistry = meterRegistry;
+        this.retried = Counter.builder("order.outbox.retried")
+                .description("Attempts to place an accepted order that will be tried again")
+                .register(meterRegistry);
+        this.lag = Timer.builder("order.outbox.lag")
+                .description("Time from accepting an order to placing, rejecting or failing it")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        var maxPlaceDuration = inventoryClient.maxPlaceDuration();
+        if (orderOutboxProperties.retryDelay().compareTo(maxPlaceDuration) <= 0) {
+            throw new IllegalStateException("order.outbox.retry-delay " + orderOutboxProperties.retryDelay()
+                    + " must be longer than an attempt may take: " + maxPlaceDuration);
+        }
+    }
+
+    /**
+     * Dispatches the due outbox entries now instead of at the next poll. A wake-up during a dispatch is kept, further
+     * ones are dropped, as that dispatch looks for due entries again anyway.
+     */
+    public void wakeUp() {
+        wakeUps.tryEmitNext(0L);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        subscription = Flux.merge(Flux.interval(Duration.ZERO, orderOutboxProperties.pollInterval()), wakeUps.asFlux())
+                .onBackpressureDrop()
+                .concatMap(tick -> drain(), 1)
+                .subscribe();
+    }
+
+    @Override
+    public void destroy() {
+        var subscription = this.subscription;
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    private Mono<Void> drain() {
+        return dispatch()
+                .expand(claimed -> claimed == claimSize ? dispatch() : Mono.empty())
+                .then()
+                .onErrorResume(e -> {
+                    log.warn("order outbox dispatch failed", e);
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Integer> dispatch() {
+        return Mono.fromCallable(this::claim)
+                .subscribeOn(jdbcScheduler)
+                .flatMap(claims -> Flux.fromIterable(claims)
+                        .flatMap(this::process, orderOutboxProperties.concurrency())
+                        .then(Mono.just(claims.size())));
+    }
+
+    private List<Claim> claim() {
+        return transactionTemplate.execute(status -> {
+            var now = Instant.now();
+            var pageable = PageRequest.ofSize(claimSize);
+            var orderOutboxList = orderOutboxRepository.findDue(now, pageable);
+            if (orderOutboxList.isEmpty()) {
+                return List.of();
+            }
+
+            orderOutboxList.forEach(orderOutbox -> {
+                orderOutbox.setAttempts(orderOutbox.getAttempts() + 1);
+                orderOutbox.setNextAttemptAt(now.plus(orderOutboxProperties.retryDelay()));
+            });
+            var orderIds = orderOutboxList.stream().map(OrderOutbox::getOrderId).toList();
+            var ordersById = orderRepository.findByIdInOrderByIdAsc(orderIds).stream()
+                    .collect(Collectors.toMap(Order::getId, Function.identity()));
+            return orderOutboxList.stream()
+                    .map(orderOutbox -> new Claim(orderOutbox, ordersById.get(orderOutbox.getOrderId())))
+                    .toList();
+        });
+    }
+
+    private Mono<Void> process(Claim claim) {
+        return reserve(claim)
+                .flatMap(reservationNumber -> inventoryClient.confirm(reservationNumber)
+                        // the reservation expired or was released, the next attempt reserves the stock again
+                        .onErrorResume(WebClientResponseException.Conflict.class,
+                                e -> saveReservationNumber(claim, null).then(Mono.error(e)))
+                        .then(complete(claim, PLACED)))
+                .switchIfEmpty(Mono.defer(() -> complete(claim, REJECTED)))
+                .then()
+                .onErrorResume(e -> retryOrFail(claim, e));
+    }
+
+    /**
+     * Returns the reservation number of an earlier attempt or reserves the stock, completes empty if any of the
+     * products is not in stock.
+     */
+    private Mono<String> reserve(Claim claim) {
+        var reservationNumber = claim.orderOutbox().getReservationNumber();
+        if (reservationNumber != null) {
+            return Mono.just(reservationNumber);
+        }
+
+        var orderLineItemDtoList = claim.order().getOrderLineItemList().stream()
+                .map(OrderLineItemMapper.INSTANCE::doMap)
+                .toList();
+        return inventoryClient.reserve(orderLineItemDtoList)
+                .flatMap(reservation -> saveReservationNumber(claim, reservation.getReservationNumber())
+                        .thenReturn(reservation.getReservationNumber()));
+    }
+
+    private Mono<Void> saveReservationNumber(Claim claim, String reservationNumber) {
+        return Mono.<Void>fromRunnable(() -> transactionTemplate.executeWithoutResult(status ->
+                        orderOutboxRepository.updateReservationNumber(claim.order().getId(), reservationNumber)))
+                .subscribeOn(jdbcScheduler)
+                .doOnSuccess(v -> claim.orderOutbox().setReservationNumber(reservationNumber));
+    }
+
+    private Mono<Void> retryOrFail(Claim claim, Throwable e) {
+        var orderNumber = claim.order().getOrderNumber();
+        var attempts = claim.orderOutbox().getAttempts();
+        if (attempts < orderOutboxProperties.maxAttempts()) {
+            retried.increment();
+            log.debug("order attempt {} failed, trying again: {}", attempts, orderNumber, e);
+            return Mono.empty();
+        }
+
+        log.warn("order failed after {} attempts: {}", attempts, orderNumber, e);
+        var reservationNumber = claim.orderOutbox().getReservationNumber();
+        var release = reservationNumber == null ? Mono.<Void>empty() : inventoryClient.release(reservationNumber)
+                // the hold expires on the inventory side anyway
+                .onErrorResume(releaseException -> Mono.empty());
+        return release
+                .then(complete(claim, FAILED))
+                .then()
+                .onErrorResume(completeException -> {
+                    log.warn("order could not be marked failed: {}", orderNumber, completeException);
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<OrderStatus> complete(Claim claim, OrderStatus orderStatus) {
+        var order = claim.order();
+        return Mono.fromCallable(() -> transactionTemplate.execute(status -> {
+                    orderRepository.updateStatus(order.getId(), orderStatus);
+                    orderOutboxRepository.deleteByOrderId(order.getId());
+                    return orderStatus;
+                }))
+                .subscribeOn(jdbcScheduler)
+                .doOnNext(completedStatus -> {
+                    order.setStatus(completedStatus);
+                    lag.record(Duration.between(claim.orderOutbox().getCreatedAt(), Instant.now()));
+                    completedCounter(completedStatus).increment();
+                    if (completedStatus == PLACED) {
+                        orderHistoryProjector.project(order);
+                    }
+                });
+    }
+
+    private Counter completedCounter(OrderStatus orderStatus) {
+        return Counter.builder("order.outbox.completed")
+                .description("Accepted orders placed, rejected or failed")
+                .tag("status", orderStatus.name().toLowerCase())
+                .register(meterRegistry);
+    }
+
+    private record Claim(OrderOutbox orderOutbox, Order order) {
+    }
+
+}
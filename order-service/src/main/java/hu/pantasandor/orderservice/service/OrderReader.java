@@ -0,0 +1,58 @@
+package hu.pantasandor.orderservice.service;
+
+import hu.pantasandor.orderservice.model.Order;
+import hu.pantasandor.orderservice.model.OrderStatus;
+import hu.pantasandor.orderservice.repository.OrderRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.List;
+
+/**
+ * Reads orders on the jdbc scheduler, always together with their line items: an order takes one query, a page of
+ * orders two, however many orders the page has.
+ */
+@Component
+public class OrderReader {
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Scheduler jdbcScheduler;
+
+    public OrderReader(OrderRepository orderRepository, PlatformTransactionManager transactionManager,
+                       Scheduler jdbcScheduler) {
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.jdbcScheduler = jdbcScheduler;
+    }
+
+    public Mono<Order> findByOrderNumber(String orderNumber) {
+        return Mono.fromCallable(() -> orderRepository.findByOrderNumber(orderNumber).orElse(null))
+                .subscribeOn(jdbcScheduler);
+    }
+
+    /**
+     * Reads the status alone, without the line items.
+     */
+    public Mono<OrderStatus> findStatusByOrderNumber(String orderNumber) {
+        return Mono.fromCallable(() -> orderRepository.findStatusByOrderNumber(orderNumber).orElse(null))
+                .subscribeOn(jdbcScheduler);
+    }
+
+    /**
+     * Returns at most {@code limit} orders in id order, starting after the given id.
+     */
+    public Mono<List<Order>> findAfter(long afterId, int limit) {
+        return Mono.fromCallable(() -> transactionTemplate.execute(status -> {
+                    var ids = orderRepository.findIdsAfter(afterId, PageRequest.ofSize(limit));
+                    return ids.isEmpty() ? List.<Order>of() : orderRepository.findByIdInOrderByIdAsc(ids);
+                }))
+                .subscribeOn(jdbcScheduler);
+    }
+
+}
@@ -1,56 +1,130 @@
 package hu.pantasandor.orderservice.service;
 
-import hu.pantasandor.orderservice.dto.InventoryResponse;
+import hu.pantasandor.orderservice.client.InventoryClient;
+import hu.pantasandor.orderservice.client.InventoryResilience;
 import hu.pantasandor.orderservice.dto.OrderLineItemDto;
 import hu.pantasandor.orderservice.dto.OrderRequest;
 import hu.pantasandor.orderservice.exception.OrderException;
 import hu.pantasandor.orderservice.mapper.OrderLineItemMapper;
 import hu.pantasandor.orderservice.model.Order;
-import hu.pantasandor.orderservice.repository.OrderRepository;
+import hu.pantasandor.orderservice.model.OrderStatus;
+import hu.pantasandor.orderservice.monitoring.OrderMetrics;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
-import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
 
 @Service
-@Transactional
 @RequiredArgsConstructor
+@Slf4j
 public class OrderService {
 
-    private final OrderRepository orderRepository;
-    private final WebClient.Builder webClientBuilder;
+    private final OrderWriter orderWriter;
+    private final OrderReader orderReader;
+    private final InventoryClient inventoryClient;
+    private final OrderMetrics orderMetrics;
+    private final OrderHistoryProjector orderHistoryProjector;
+    private final OrderOutboxDispatcher orderOutboxDispatcher;
 
-    public void placeOrder(OrderRequest orderRequest) throws OrderException {
+    /**
+     * Places the order without holding a database connection while inventory-service is called: the stock is
+     * reserved first, the order is saved in its own short transaction and the reservation is confirmed afterwards.
+     * The placed order is added to the order history read model in the background.
+     * <p>
+     * If the confirm is rejected the reservation is gone, so the order is deleted. If its outcome is unknown even
+     * after the retries, e.g. it timed out, inventory-service may have confirmed it already: the order is kept as
+     * pending and handed over to the {@link OrderOutboxDispatcher}, which confirms the same reservation.
+     */
+    public Mono<Order> placeOrder(OrderRequest orderRequest) {
         var orderLineItemDtoList = orderRequest.getOrderLineItemDtoList();
-        var skuCodes = orderLineItemDtoList.stream()
-                .map(OrderLineItemDto::getSkuCode)
-                .toList();
 
-        var inventoryResponses = webClientBuilder.build()
-                .get()
-                .uri("http://inventory-service/api/v1/inventory", ub -> ub.queryParam("skuCode", skuCodes).build())
-                .retrieve()
-                .bodyToMono(InventoryResponse[].class)
-                .block();
+        var placeOrder = inventoryClient.reserve(orderLineItemDtoList)
+                .switchIfEmpty(Mono.error(() -> new OrderException("product is not in stock")))
+                .flatMap(reservation -> {
+                    var reservationNumber = reservation.getReservationNumber();
+                    return saveOrder(orderLineItemDtoList)
+                            .onErrorResume(e -> release(reservationNumber).then(Mono.error(e)))
+                            .flatMap(order -> inventoryClient.confirm(reservationNumber)
+                                    .thenReturn(order)
+                                    .onErrorResume(e -> confirmFailed(order, reservationNumber, e)));
+                })
+                .doOnNext(order -> {
+                    if (order.getStatus() == OrderStatus.PLACED) {
+                        orderHistoryProjector.project(order);
+                    }
+                });
 
-        var allProductsInStock = inventoryResponses !=null && inventoryResponses.length == orderLineItemDtoList.size() &&
-                Arrays.stream(inventoryResponses).allMatch(InventoryResponse::isInStock);
+        return orderMetrics.placeOrder(orderRequest, placeOrder);
+    }
 
-        if (!allProductsInStock) {
-            throw new OrderException("product is not in stock");
-        }
+    /**
+     * Accepts the order without calling inventory-service: the order is saved as pending together with its outbox
+     * entry in one transaction and placed in the background by the {@link OrderOutboxDispatcher}.
+     */
+    public Mono<Order> acceptOrder(OrderRequest orderRequest) {
+        return Mono.defer(() -> orderWriter.saveWithOutbox(
+                        newOrder(orderRequest.getOrderLineItemDtoList(), OrderStatus.PENDING)))
+                .doOnNext(order -> orderOutboxDispatcher.wakeUp());
+    }
 
+    public Mono<Order> getOrder(String orderNumber) {
+        return orderReader.findByOrderNumber(orderNumber);
+    }
+
+    public Mono<OrderStatus> getOrderStatus(String orderNumber) {
+        return orderReader.findStatusByOrderNumber(orderNumber);
+    }
+
+    /**
+     * Returns at most {@code limit} orders with their line items in id order, starting after the given id or from
+     * the first order if it is {@code null}.
+     */
+    public Mono<List<Order>> getOrders(Long afterId, int limit) {
+        return orderReader.findAfter(afterId == null ? 0 : afterId, limit);
+    }
+
+    private Mono<Order> saveOrder(List<OrderLineItemDto> orderLineItemDtoList) {
+        return Mono.defer(() -> orderWriter.save(newOrder(orderLineItemDtoList, OrderStatus.PLACED)));
+    }
+
+    private static Order newOrder(List<OrderLineItemDto> orderLineItemDtoList, OrderStatus status) {
         var order = new Order();
         order.setOrderNumber(UUID.randomUUID().toString());
+        order.setStatus(status);
 
         var orderLineItemList = orderLineItemDtoList.stream()
                 .map(OrderLineItemMapper.INSTANCE::doMap)
                 .toList();
+        orderLineItemList.forEach(orderLineItem -> orderLineItem.setOrder(order));
         order.setOrderLineItemList(orderLineItemList);
+        return order;
+    }
+
+    private Mono<Order> confirmFailed(Order order, String reservationNumber, Throwable e) {
+        if (InventoryResilience.isRejected(e)) {
+            return orderWriter.delete(order)
+                    .then(release(reservationNumber))
+                    .then(Mono.error(e));
+        }
+
+        log.warn("confirm failed, handing over to the outbox: {}", order.getOrderNumber(), e);
+        return orderWriter.handOver(order, reservationNumber)
+                .doOnNext(pendingOrder -> orderOutboxDispatcher.wakeUp())
+                .onErrorResume(handOverException -> {
+                    log.warn("order could not be handed over: {}", order.getOrderNumber(), handOverException);
+                    return Mono.error(e);
+                });
+    }
 
-        orderRepository.save(order);
+    private Mono<Void> release(String reservationNumber) {
+        // a pending hold expires on the inventory side anyway
+        return inventoryClient.release(reservationNumber)
+                .onErrorResume(e -> {
+                    log.warn("release failed: {}", reservationNumber, e);
+                    return Mono.empty();
+                });
     }
 }
@@ -0,0 +1,104 @@
+package hu.pantasandor.orderservice.service;
+
+import hu.pantasandor.orderservice.batch.MicroBatcher;
+import hu.pantasandor.orderservice.config.WriteBehindProperties;
+import hu.pantasandor.orderservice.model.Order;
+import hu.pantasandor.orderservice.model.OrderOutbox;
+import hu.pantasandor.orderservice.model.OrderStatus;
+import hu.pantasandor.orderservice.repository.OrderOutboxRepository;
+import hu.pantasandor.orderservice.repository.OrderRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Persists orders on the jdbc scheduler. With write-behind enabled the orders of concurrent callers are saved
+ * together in one transaction, so their rows go to the database in a few JDBC batches and share a single commit.
+ * Either way a caller is only completed once its order is committed.
+ */
+@Component
+public class OrderWriter implements DisposableBean {
+
+    private final OrderRepository orderRepository;
+    private final OrderOutboxRepository orderOutboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Scheduler jdbcScheduler;
+    private final MicroBatcher<Order, Order> orderBatcher;
+
+    public OrderWriter(OrderRepository orderRepository, OrderOutboxRepository orderOutboxRepository,
+                       TransactionTemplate transactionTemplate, Scheduler jdbcScheduler,
+                       WriteBehindProperties writeBehindProperties, MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.orderOutboxRepository = orderOutboxRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcScheduler = jdbcScheduler;
+        this.orderBatcher = !writeBehindProperties.enabled() ? null : new MicroBatcher<>(
+                "order.persistence.write-behind",
+                writeBehindProperties.maxSize(),
+                writeBehindProperties.maxDelay(),
+                this::saveAll,
+                meterRegistry);
+    }
+
+    public Mono<Order> save(Order order) {
+        if (orderBatcher != null) {
+            return orderBatcher.submit(order);
+        }
+
+        return Mono.fromCallable(() -> orderRepository.save(order))
+                .subscribeOn(jdbcScheduler);
+    }
+
+    /**
+     * Saves the order together with its outbox entry in one transaction, the entry is due at once.
+     */
+    public Mono<Order> saveWithOutbox(Order order) {
+        return Mono.fromCallable(() -> transactionTemplate.execute(status -> {
+                    var now = Instant.now();
+                    orderRepository.save(order);
+                    orderOutboxRepository.save(new OrderOutbox(null, order, null, 0, now, now));
+                    return order;
+                }))
+                .subscribeOn(jdbcScheduler);
+    }
+
+    /**
+     * Marks the saved order pending and adds an outbox entry holding its reservation, so that the
+     * {@link OrderOutboxDispatcher} confirms the same reservation and completes the order.
+     */
+    public Mono<Order> handOver(Order order, String reservationNumber) {
+        return Mono.fromCallable(() -> transactionTemplate.execute(status -> {
+                    var now = Instant.now();
+                    orderRepository.updateStatus(order.getId(), OrderStatus.PENDING);
+                    orderOutboxRepository.save(new OrderOutbox(null, orderRepository.getReferenceById(order.getId()),
+                            reservationNumber, 0, now, now));
+                    order.setStatus(OrderStatus.PENDING);
+                    return order;
+                }))
+                .subscribeOn(jdbcScheduler);
+    }
+
+    public Mono<Void> delete(Order order) {
+        return Mono.<Void>fromRunnable(() -> orderRepository.delete(order))
+                .subscribeOn(jdbcScheduler);
+    }
+
+    @Override
+    public void destroy() {
+        if (orderBatcher != null) {
+            orderBatcher.dispose();
+        }
+    }
+
+    private Mono<List<Order>> saveAll(List<Order> orders) {
+        return Mono.fromCallable(() -> transactionTemplate.execute(status -> orderRepository.saveAll(orders)))
+                .subscribeOn(jdbcScheduler);
+    }
+
+}
@@ -0,0 +1,11 @@
+-- the schema hibernate generated before the migrations, which existing databases are baselined at
+create table t_orders (id bigint not null, order_number varchar(255), primary key (id)) engine=InnoDB;
+create table t_orders_seq (next_val bigint) engine=InnoDB;
+insert into t_orders_seq values (1);
+
+create table t_order_line_items (price decimal(38,2), quantity integer, id bigint not null auto_increment, sku_code varchar(255), primary key (id)) engine=InnoDB;
+
+create table t_orders_order_line_item_list (order_id bigint not null, order_line_item_list_id bigint not null) engine=InnoDB;
+alter table t_orders_order_line_item_list add constraint uk_orders_order_line_item_list_line_item_id unique (order_line_item_list_id);
+alter table t_orders_order_line_item_list add constraint fk_orders_order_line_item_list_line_item_id foreign key (order_line_item_list_id) references t_order_line_items (id);
+alter table t_orders_order_line_item_list add constraint fk_orders_order_line_item_list_order_id foreign key (order_id) references t_orders (id);
@@ -0,0 +1,13 @@
+-- line items reference their order through order_id instead of the join table
+alter table t_order_line_items add column order_id bigint;
+update t_order_line_items li set order_id = (select j.order_id from t_orders_order_line_item_list j where j.order_line_item_list_id = li.id);
+alter table t_order_line_items add constraint fk_order_line_items_order_id foreign key (order_id) references t_orders (id);
+drop table t_orders_order_line_item_list;
+
+-- line item ids come from the pooled table generator instead of auto_increment
+alter table t_order_line_items modify id bigint not null;
+
+-- the pooled optimizer takes next_val as the last id of the next block of 50, so both blocks start above the existing ids
+create table t_order_line_items_seq (next_val bigint) engine=InnoDB;
+insert into t_order_line_items_seq select coalesce(max(id), 0) + 50 from t_order_line_items;
+update t_orders_seq set next_val = greatest(next_val, (select coalesce(max(id), 0) + 50 from t_orders));
@@ -0,0 +1,3 @@
+create unique index ux_orders_order_number on t_orders (order_number);
+
+create index ix_order_line_items_order_id on t_order_line_items (order_id);
@@ -0,0 +1,5 @@
+create table t_order_totals (order_id bigint not null, order_number varchar(255) not null, line_items integer not null, quantity integer not null, total decimal(38,2) not null, primary key (order_id)) engine=InnoDB;
+create unique index ux_order_totals_order_number on t_order_totals (order_number);
+
+create table t_sku_sales (sku_code varchar(255) not null, orders bigint not null, quantity bigint not null, revenue decimal(38,2) not null, primary key (sku_code)) engine=InnoDB;
+create index ix_sku_sales_quantity on t_sku_sales (quantity);
@@ -0,0 +1,7 @@
+-- orders placed before the asynchronous intake are all placed
+alter table t_orders add column status enum ('FAILED','PENDING','PLACED','REJECTED') not null default 'PLACED';
+
+create table t_order_outbox (order_id bigint not null, reservation_number varchar(255), attempts integer not null, created_at datetime(6) not null, next_attempt_at datetime(6) not null, primary key (order_id)) engine=InnoDB;
+alter table t_order_outbox add constraint fk_order_outbox_order_id foreign key (order_id) references t_orders (id);
+-- due entry lookup, ordered by next_attempt_at
+create index ix_order_outbox_next_attempt_at on t_order_outbox (next_attempt_at);
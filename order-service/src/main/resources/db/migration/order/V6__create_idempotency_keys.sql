@@ -0,0 +1,3 @@
+create table t_idempotency_keys (idempotency_key varchar(255) not null, request_hash varchar(64) not null, order_number varchar(255), order_status enum ('FAILED','PENDING','PLACED','REJECTED'), created_at datetime(6) not null, primary key (idempotency_key)) engine=InnoDB;
+-- expired key purge, ordered by created_at
+create index ix_idempotency_keys_created_at on t_idempotency_keys (created_at);
@@ -0,0 +1,664 @@
+package hu.pantasandor.orderservice;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import hu.pantasandor.orderservice.controller.OrderHistoryController;
+import hu.pantasandor.orderservice.dto.OrderLineItemDto;
+import hu.pantasandor.orderservice.dto.OrderPageResponse;
+import hu.pantasandor.orderservice.dto.OrderRequest;
+import hu.pantasandor.orderservice.dto.OrderResponse;
+import hu.pantasandor.orderservice.dto.OrderStatusResponse;
+import hu.pantasandor.orderservice.dto.OrderTotalResponse;
+import hu.pantasandor.orderservice.dto.ReservationBatchRequest;
+import hu.pantasandor.orderservice.dto.ReservationBatchResponse;
+import hu.pantasandor.orderservice.dto.ReservationResponse;
+import hu.pantasandor.orderservice.dto.SkuSalesResponse;
+import hu.pantasandor.orderservice.idempotency.IdempotencyStore;
+import hu.pantasandor.orderservice.model.IdempotencyKey;
+import hu.pantasandor.orderservice.model.Order;
+import hu.pantasandor.orderservice.model.OrderLineItem;
+import hu.pantasandor.orderservice.model.OrderStatus;
+import hu.pantasandor.orderservice.repository.IdempotencyKeyRepository;
+import hu.pantasandor.orderservice.repository.OrderOutboxRepository;
+import hu.pantasandor.orderservice.repository.OrderRepository;
+import hu.pantasandor.orderservice.repository.OrderTotalRepository;
+import hu.pantasandor.orderservice.repository.SkuSalesRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static hu.pantasandor.orderservice.controller.OrderController.API_URL;
+import static hu.pantasandor.orderservice.controller.OrderController.PREFER;
+import static hu.pantasandor.orderservice.controller.OrderController.PREFERENCE_APPLIED;
+import static hu.pantasandor.orderservice.controller.OrderController.RESPOND_ASYNC;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.comparesEqualTo;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.CREATED;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static org.springframework.http.HttpStatus.UNPROCESSABLE_ENTITY;
+
+/**
+ * Runs order-service against a MySQL container and an inventory-service stub, with reservation batching and
+ * write-behind enabled. Reservations of concurrent orders are sent together if they arrive within half a second or
+ * three of them are waiting. The circuit opens once the last eight calls to inventory-service failed, so the
+ * failures of a single test do not open it for the next one.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "eureka.client.enabled=false",
+                "order.persistence.write-behind.enabled=true",
+                "order.inventory.batch.enabled=true",
+                "order.inventory.batch.max-size=3",
+                "order.inventory.batch.max-delay=PT0.5S",
+                "order.outbox.poll-interval=PT0.2S",
+                "order.outbox.retry-delay=PT30S",
+                "order.inventory.resilience.response-timeout=PT5S",
+                "order.inventory.resilience.timeout=PT5S",
+                "order.inventory.resilience.circuit-breaker.failure-rate-threshold=100",
+                "order.inventory.resilience.circuit-breaker.slow-call-rate-threshold=100",
+                "order.inventory.resilience.circuit-breaker.slow-call-duration-threshold=PT10S",
+                "order.inventory.resilience.circuit-breaker.sliding-window-size=8",
+                "order.inventory.resilience.circuit-breaker.minimum-number-of-calls=8",
+                "order.inventory.resilience.circuit-breaker.wait-duration-in-open-state=PT0.5S",
+                "order.inventory.resilience.circuit-breaker.permitted-number-of-calls-in-half-open-state=1",
+                "order.inventory.resilience.bulkhead.max-concurrent-calls=3",
+                "order.inventory.resilience.retry.max-attempts=2",
+                "order.inventory.resilience.retry.backoff=PT0.01S",
+                "order.inventory.resilience.hedge.enabled=false"
+        })
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class OrderServiceApplicationTests {
+
+    public static final String VALID_SKU_CODE = "valid_sku_code";
+    public static final String VALID_SKU_CODE_2 = "valid_sku_code_2";
+    public static final String HISTORY_SKU_CODE = "history_sku_code";
+    public static final String HISTORY_SKU_CODE_2 = "history_sku_code_2";
+
+    public static final BigDecimal PRICE = new BigDecimal("10.00");
+    public static final BigDecimal PRICE_2 = new BigDecimal("5.50");
+
+    private static final String INVENTORY_URL = "/api/v1/inventory";
+    private static final Duration AWAIT_TIMEOUT = Duration.ofSeconds(10);
+    private static final ObjectMapper STUB_OBJECT_MAPPER = Jackson2ObjectMapperBuilder.json().build();
+
+    private static MySQLContainer<?> mySQLContainer = new MySQLContainer<>("mysql:8.0");
+
+    private static ExecutorService inventoryExecutor;
+    private static HttpServer inventory;
+    private static volatile boolean inStock;
+    private static volatile int batchStatus;
+    private static volatile int confirmStatus;
+    private static volatile CountDownLatch batchLatch;
+    private static final AtomicInteger batchRequests = new AtomicInteger();
+    private static final AtomicInteger reservations = new AtomicInteger();
+    private static final AtomicInteger heldBatches = new AtomicInteger();
+    private static final AtomicInteger confirms = new AtomicInteger();
+    private static final AtomicInteger failedConfirms = new AtomicInteger();
+    private static final List<String> releases = new CopyOnWriteArrayList<>();
+
+    private final OrderRepository orderRepository;
+    private final OrderOutboxRepository orderOutboxRepository;
+    private final OrderTotalRepository orderTotalRepository;
+    private final SkuSalesRepository skuSalesRepository;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final WebTestClient webClient;
+
+    @BeforeAll
+    static void beforeAll() throws IOException {
+        mySQLContainer.start();
+
+        inventoryExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        inventory = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        inventory.createContext(INVENTORY_URL, exchange -> {
+            try (exchange) {
+                handleInventory(exchange);
+            }
+        });
+        // held reservations must not hold up the other requests
+        inventory.setExecutor(inventoryExecutor);
+        inventory.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        inventory.stop(0);
+        inventoryExecutor.close();
+        mySQLContainer.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mySQLContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", mySQLContainer::getUsername);
+        registry.add("spring.datasource.password", mySQLContainer::getPassword);
+        registry.add("spring.cloud.discovery.client.simple.instances.inventory-service[0].uri",
+                () -> "http://localhost:" + inventory.getAddress().getPort());
+    }
+
+    @BeforeEach
+    void setUp() {
+        inStock = true;
+        batchStatus = 200;
+        confirmStatus = 204;
+        batchLatch = new CountDownLatch(0);
+        batchRequests.set(0);
+        reservations.set(0);
+        heldBatches.set(0);
+        confirms.set(0);
+        failedConfirms.set(0);
+        releases.clear();
+
+        orderOutboxRepository.deleteAll();
+        orderRepository.deleteAll();
+        orderTotalRepository.deleteAll();
+        skuSalesRepository.deleteAll();
+        idempotencyKeyRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should place order if products are in stock")
+    public void shouldPlaceOrderIfProductsAreInStock() {
+        webClient.post()
+                .uri(API_URL)
+                .bodyValue(orderRequest(lineItem(VALID_SKU_CODE, PRICE, 1)))
+                .exchange()
+                .expectStatus()
+                .isCreated()
+                .expectBody(String.class)
+                .isEqualTo("Order Placed Successfully");
+
+        var orders = orderRepository.findAll();
+        assertEquals(1, orders.size());
+        assertEquals(OrderStatus.PLACED, orders.get(0).getStatus());
+        assertEquals(1, reservations.get());
+        assertEquals(1, confirms.get());
+    }
+
+    @Test
+    @DisplayName("Should not place order if products are not in stock")
+    public void shouldNotPlaceOrderIfProductsAreNotInStock() {
+        inStock = false;
+
+        webClient.post()
+                .uri(API_URL)
+                .bodyValue(orderRequest(lineItem(VALID_SKU_CODE, PRICE, 1)))
+                .exchange()
+                .expectStatus()
+                .is5xxServerError();
+
+        assertEquals(0, orderRepository.count());
+        assertEquals(0, confirms.get());
+    }
+
+    @Test
+    @DisplayName("Should delete order and release its reservation if the confirm is rejected")
+    public void shouldDeleteOrderIfConfirmIsRejected() {
+        confirmStatus = 409;
+
+        webClient.post()
+                .uri(API_URL)
+                .bodyValue(orderRequest(lineItem(VALID_SKU_CODE, PRICE, 1)))
+                .exchange()
+                .expectStatus()
+                .is5xxServerError();
+
+        assertEquals(0, orderRepository.count());
+        assertEquals(1, confirms.get());
+        assertEquals(1, releases.size());
+    }
+
+    @Test
+    @DisplayName("Should keep order pending and place it in the background if the confirm fails")
+    public void shouldKeepOrderPendingIfConfirmFails() throws InterruptedException {
+        // both attempts of the placement fail, the one of the outbox succeeds
+        failedConfirms.set(2);
+
+        var location = webClient.post()
+                .uri(API_URL)
+                .bodyValue(orderRequest(lineItem(VALID_SKU_CODE, PRICE, 1)))
+                .exchange()
+                .expectStatus()
+                .isAccepted()
+                .expectBody(OrderStatusResponse.class)
+                .value(OrderStatusResponse::getStatus, equalTo("PENDING"))
+                .returnResult()
+                .getResponseHeaders()
+                .getLocation();
+        assertNotNull(location);
+
+        awaitUntil(() -> "PLACED".equals(getOrderStatus(location.toString())));
+
+        assertEquals(1, orderRepository.count());
+        assertEquals(1, reservations.get());
+        assertEquals(3, confirms.get());
+        assertTrue(releases.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should send the reservations of concurrent orders in one batch")
+    public void shouldBatchReservationsOfConcurrentOrders() {
+        var statuses = new ArrayList<CompletableFuture<HttpStatusCode>>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (var i = 0; i < 3; i++) {
+                var orderRequest = orderRequest(lineItem(VALID_SKU_CODE, PRICE, i + 1));
+                statuses.add(CompletableFuture.supplyAsync(() -> placeOrder(webClient, null, orderRequest), executor));
+            }
+        }
+
+        statuses.forEach(status -> assertEquals(CREATED, status.join()));
+        assertEquals(1, batchRequests.get());
+        assertEquals(3, reservations.get());
+        assertEquals(3, orderRepository.count());
+    }
+
+    @Test
+    @DisplayName("Should save order with its line items referencing it through write-behind")
+    public void shouldSaveOrderWithLineItems() {
+        var batches = writeBehindBatches();
+
+        assertEquals(CREATED, placeOrder(webClient, null,
+                orderRequest(lineItem(VALID_SKU_CODE, PRICE, 1), lineItem(VALID_SKU_CODE_2, PRICE_2, 2))));
+
+        var orders = orderRepository.findAll();
+        assertEquals(1, orders.size());
+        var orderId = orders.get(0).getId();
+        var lineItemOrderIds = jdbcTemplate.queryForList(
+                "select order_id from t_order_line_items where sku_code in (?, ?)", Long.class,
+                VALID_SKU_CODE, VALID_SKU_CODE_2);
+        assertThat(lineItemOrderIds, contains(orderId, orderId));
+        assertEquals(batches + 1, writeBehindBatches());
+    }
+
+    @Test
+    @DisplayName("Should get order with its line items by order number")
+    public void shouldGetOrderByOrderNumber() {
+        assertEquals(CREATED, placeOrder(webClient, null,
+                orderRequest(lineItem(VALID_SKU_CODE, PRICE, 1), lineItem(VALID_SKU_CODE_2, PRICE_2, 2))));
+        var orderNumber = orderRepository.findAll().get(0).getOrderNumber();
+
+        webClient.get()
+                .uri(API_URL + "/{orderNumber}", orderNumber)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(OrderResponse.class)
+                .value(OrderResponse::getOrderNumber, equalTo(orderNumber))
+                .value(OrderResponse::getStatus, equalTo("PLACED"))
+                .value(OrderServiceApplicationTests::skuCodes, containsInAnyOrder(VALID_SKU_CODE, VALID_SKU_CODE_2));
+
+        webClient.get()
+                .uri(API_URL + "/{orderNumber}", UUID.randomUUID().toString())
+                .exchange()
+                .expectStatus()
+                .isNotFound();
+    }
+
+    @Test
+    @DisplayName("Should page through orders with the continuation token")
+    public void shouldPageThroughOrders() {
+        var orderNumbers = orderRepository.saveAll(List.of(order(VALID_SKU_CODE), order(VALID_SKU_CODE), order(VALID_SKU_CODE)))
+                .stream()
+                .map(Order::getOrderNumber)
+                .toList();
+
+        var firstPage = getOrders(null);
+        assertThat(orderNumbers(firstPage), contains(orderNumbers.get(0), orderNumbers.get(1)));
+        firstPage.getContent().forEach(orderResponse -> assertEquals(1, orderResponse.getOrderLineItemDtoList().size()));
+        assertNotNull(firstPage.getContinuationToken());
+
+        var secondPage = getOrders(firstPage.getContinuationToken());
+        assertThat(orderNumbers(secondPage), contains(orderNumbers.get(2)));
+        assertNull(secondPage.getContinuationToken());
+
+        webClient.get()
+                .uri(builder -> builder.path(API_URL).queryParam("continuationToken", "invalid").build())
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
+    @Test
+    @DisplayName("Should add placed order to the order totals and sku sales")
+    public void shouldProjectPlacedOrder() throws InterruptedException {
+        assertEquals(CREATED, placeOrder(webClient, null,
+                orderRequest(lineItem(HISTORY_SKU_CODE, PRICE, 2), lineItem(HISTORY_SKU_CODE_2, PRICE_2, 1))));
+        var orderNumber = orderRepository.findAll().get(0).getOrderNumber();
+
+        awaitUntil(() -> orderTotalRepository.findByOrderNumber(orderNumber).isPresent());
+
+        webClient.get()
+                .uri(OrderHistoryController.API_URL + "/orders/{orderNumber}", orderNumber)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(OrderTotalResponse.class)
+                .value(OrderTotalResponse::getLineItems, equalTo(2))
+                .value(OrderTotalResponse::getQuantity, equalTo(3))
+                .value(OrderTotalResponse::getTotal, comparesEqualTo(new BigDecimal("25.50")));
+
+        webClient.get()
+                .uri(OrderHistoryController.API_URL + "/skus/{skuCode}", HISTORY_SKU_CODE)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(SkuSalesResponse.class)
+                .value(SkuSalesResponse::getOrders, equalTo(1L))
+                .value(SkuSalesResponse::getQuantity, equalTo(2L))
+                .value(SkuSalesResponse::getRevenue, comparesEqualTo(new BigDecimal("20.00")));
+    }
+
+    @Test
+    @DisplayName("Should accept order if the client prefers respond-async and place it in the background")
+    public void shouldAcceptOrderAsynchronously() throws InterruptedException {
+        var orderStatusResponse = webClient.post()
+                .uri(API_URL)
+                .header(PREFER, RESPOND_ASYNC)
+                .bodyValue(orderRequest(lineItem(VALID_SKU_CODE, PRICE, 1)))
+                .exchange()
+                .expectStatus()
+                .isAccepted()
+                .expectHeader()
+                .valueEquals(PREFERENCE_APPLIED, RESPOND_ASYNC)
+                .expectHeader()
+                .exists(HttpHeaders.LOCATION)
+                .expectBody(OrderStatusResponse.class)
+                .value(OrderStatusResponse::getStatus, equalTo("PENDING"))
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(orderStatusResponse);
+
+        var location = API_URL + "/" + orderStatusResponse.getOrderNumber() + "/status";
+        awaitUntil(() -> "PLACED".equals(getOrderStatus(location)));
+
+        assertEquals(1, reservations.get());
+        assertEquals(1, confirms.get());
+    }
+
+    @Test
+    @DisplayName("Should answer a repeated request with the same idempotency key without placing the order again")
+    public void shouldReplayRepeatedRequest() {
+        var idempotencyKey = UUID.randomUUID().toString();
+        var orderRequest = orderRequest(lineItem(VALID_SKU_CODE, PRICE, 1));
+
+        assertEquals(CREATED, placeOrder(webClient, idempotencyKey, orderRequest));
+        assertEquals(CREATED, placeOrder(webClient, idempotencyKey, orderRequest));
+
+        assertEquals(1, orderRepository.count());
+        assertEquals(1, reservations.get());
+    }
+
+    @Test
+    @DisplayName("Should not place order if the idempotency key was sent with another request")
+    public void shouldNotPlaceOrderIfIdempotencyKeyDoesNotMatch() {
+        var idempotencyKey = UUID.randomUUID().toString();
+
+        assertEquals(CREATED, placeOrder(webClient, idempotencyKey, orderRequest(lineItem(VALID_SKU_CODE, PRICE, 1))));
+        assertEquals(UNPROCESSABLE_ENTITY,
+                placeOrder(webClient, idempotencyKey, orderRequest(lineItem(VALID_SKU_CODE, PRICE, 2))));
+
+        assertEquals(1, orderRepository.count());
+    }
+
+    @Test
+    @DisplayName("Should not place order if the same request is being placed with the idempotency key")
+    public void shouldNotPlaceOrderIfIdempotencyKeyIsInProgress() {
+        var idempotencyKey = UUID.randomUUID().toString();
+        var orderRequest = orderRequest(lineItem(VALID_SKU_CODE, PRICE, 1));
+        idempotencyKeyRepository.insert(new IdempotencyKey(idempotencyKey, requestHash("place", orderRequest),
+                null, null, Instant.now()));
+
+        assertEquals(CONFLICT, placeOrder(webClient, idempotencyKey, orderRequest));
+
+        assertEquals(0, orderRepository.count());
+        assertEquals(0, reservations.get());
+    }
+
+    @Test
+    @DisplayName("Should answer service unavailable if the bulkhead is full")
+    public void shouldAnswerServiceUnavailableIfBulkheadIsFull() throws InterruptedException {
+        var patientClient = webClient.mutate().responseTimeout(AWAIT_TIMEOUT).build();
+        var statuses = new ArrayList<CompletableFuture<HttpStatusCode>>();
+        batchLatch = new CountDownLatch(1);
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            try {
+                for (var i = 0; i < 3; i++) {
+                    var orderRequest = orderRequest(lineItem(VALID_SKU_CODE, PRICE, i + 1));
+                    statuses.add(CompletableFuture.supplyAsync(() -> placeOrder(patientClient, null, orderRequest), executor));
+                    var held = i + 1;
+                    awaitUntil(() -> heldBatches.get() == held);
+                }
+
+                assertEquals(SERVICE_UNAVAILABLE, placeOrder(webClient, null, orderRequest(lineItem(VALID_SKU_CODE, PRICE, 4))));
+                assertEquals(3, batchRequests.get());
+            } finally {
+                batchLatch.countDown();
+            }
+        }
+
+        statuses.forEach(status -> assertTrue(status.join().is2xxSuccessful()));
+    }
+
+    @Test
+    @DisplayName("Should answer service unavailable while the circuit is open and close it once inventory-service recovers")
+    public void shouldAnswerServiceUnavailableIfCircuitIsOpen() throws InterruptedException {
+        batchStatus = 500;
+
+        // the circuit opens after at most eight failed calls, later reservations are not sent
+        HttpStatusCode status = null;
+        for (var i = 0; i <= 8 && !SERVICE_UNAVAILABLE.equals(status); i++) {
+            status = placeOrder(webClient, null, orderRequest(lineItem(VALID_SKU_CODE, PRICE, 1)));
+        }
+        assertEquals(SERVICE_UNAVAILABLE, status);
+        var sent = batchRequests.get();
+        assertEquals(SERVICE_UNAVAILABLE, placeOrder(webClient, null, orderRequest(lineItem(VALID_SKU_CODE, PRICE, 1))));
+        assertEquals(sent, batchRequests.get());
+        assertEquals(0, orderRepository.count());
+
+        batchStatus = 200;
+        Thread.sleep(Duration.ofSeconds(1));
+        assertEquals(CREATED, placeOrder(webClient, null, orderRequest(lineItem(VALID_SKU_CODE, PRICE, 1))));
+    }
+
+    private HttpStatusCode placeOrder(WebTestClient client, String idempotencyKey, OrderRequest orderRequest) {
+        return client.post()
+                .uri(API_URL)
+                .headers(headers -> {
+                    if (idempotencyKey != null) {
+                        headers.set(IdempotencyStore.HEADER, idempotencyKey);
+                    }
+                })
+                .bodyValue(orderRequest)
+                .exchange()
+                .returnResult(String.class)
+                .getStatus();
+    }
+
+    private String getOrderStatus(String location) {
+        var orderStatusResponse = webClient.get()
+                .uri(location)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(OrderStatusResponse.class)
+                .returnResult()
+                .getResponseBody();
+        return orderStatusResponse == null ? null : orderStatusResponse.getStatus();
+    }
+
+    private OrderPageResponse getOrders(String continuationToken) {
+        return webClient.get()
+                .uri(builder -> {
+                    builder.path(API_URL).queryParam("size", 2);
+                    if (continuationToken != null) {
+                        builder.queryParam("continuationToken", continuationToken);
+                    }
+                    return builder.build();
+                })
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(OrderPageResponse.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private double writeBehindBatches() {
+        return meterRegistry.get("order.persistence.write-behind.size")
+                .summary()
+                .count();
+    }
+
+    /**
+     * The hash the {@link IdempotencyStore} keeps with a key, of the request as the service serializes it.
+     */
+    private String requestHash(String operation, OrderRequest orderRequest) {
+        try {
+            var messageDigest = MessageDigest.getInstance("SHA-256");
+            messageDigest.update(operation.getBytes(StandardCharsets.UTF_8));
+            messageDigest.update(objectMapper.writeValueAsBytes(orderRequest));
+            return HexFormat.of().formatHex(messageDigest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        var deadline = System.nanoTime() + AWAIT_TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("condition not met within " + AWAIT_TIMEOUT);
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private static OrderRequest orderRequest(OrderLineItemDto... orderLineItemDtos) {
+        return new OrderRequest(List.of(orderLineItemDtos));
+    }
+
+    private static OrderLineItemDto lineItem(String skuCode, BigDecimal price, int quantity) {
+        return new OrderLineItemDto(null, skuCode, price, quantity);
+    }
+
+    private static Order order(String skuCode) {
+        var order = new Order(null, UUID.randomUUID().toString(), OrderStatus.PLACED, null);
+        order.setOrderLineItemList(List.of(new OrderLineItem(null, skuCode, PRICE, 1, order)));
+        return order;
+    }
+
+    private static List<String> orderNumbers(OrderPageResponse orderPageResponse) {
+        return orderPageResponse.getContent().stream().map(OrderResponse::getOrderNumber).toList();
+    }
+
+    private static List<String> skuCodes(OrderResponse orderResponse) {
+        return orderResponse.getOrderLineItemDtoList().stream().map(OrderLineItemDto::getSkuCode).toList();
+    }
+
+    /**
+     * Stands in for the reservation endpoints of inventory-service. Batched reservations wait for the batch latch and
+     * are answered with the batch status, confirms with a 503 while failed confirms remain and with the confirm
+     * status afterwards.
+     */
+    private static void handleInventory(HttpExchange exchange) throws IOException {
+        // an unread request body makes the server close the connection
+        var body = exchange.getRequestBody().readAllBytes();
+        var path = exchange.getRequestURI().getPath();
+        if (path.equals(INVENTORY_URL + "/reservation/batch")) {
+            batchRequests.incrementAndGet();
+            var reservationRequestList = STUB_OBJECT_MAPPER.readValue(body, ReservationBatchRequest.class)
+                    .getReservationRequestList();
+            reservations.addAndGet(reservationRequestList.size());
+            hold();
+            if (batchStatus != 200) {
+                exchange.sendResponseHeaders(batchStatus, -1);
+                return;
+            }
+            var reservationResponseList = reservationRequestList.stream()
+                    .map(reservationRequest -> inStock ? reservation() : null)
+                    .toList();
+            send(exchange, STUB_OBJECT_MAPPER.writeValueAsBytes(new ReservationBatchResponse(reservationResponseList)));
+        } else if (path.endsWith("/confirm")) {
+            confirms.incrementAndGet();
+            var failed = failedConfirms.getAndUpdate(remaining -> Math.max(0, remaining - 1)) > 0;
+            exchange.sendResponseHeaders(failed ? 503 : confirmStatus, -1);
+        } else if (exchange.getRequestMethod().equals("DELETE")) {
+            releases.add(path.substring(path.lastIndexOf('/') + 1));
+            exchange.sendResponseHeaders(204, -1);
+        } else {
+            exchange.sendResponseHeaders(404, -1);
+        }
+    }
+
+    private static void hold() {
+        var latch = batchLatch;
+        if (latch.getCount() == 0) {
+            return;
+        }
+        heldBatches.incrementAndGet();
+        try {
+            latch.await(AWAIT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ReservationResponse reservation() {
+        return new ReservationResponse(UUID.randomUUID().toString(), Instant.now().plus(Duration.ofMinutes(5)));
+    }
+
+    private static void send(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+}
@@ -0,0 +1,48 @@
+package hu.pantasandor.orderservice.batch;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MicroBatcherTests {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(1);
+
+    @Test
+    @DisplayName("Should answer every caller of a batch with its own result")
+    void shouldAnswerEveryCaller() {
+        var batcher = batcher(items -> Mono.just(items.stream().map(String::length).toList()));
+
+        var results = Flux.merge(batcher.submit("a"), batcher.submit("bb")).collectList().block(TIMEOUT);
+
+        assertEquals(List.of(1, 2), results.stream().sorted().toList());
+        batcher.dispose();
+    }
+
+    @Test
+    @DisplayName("Should fail every caller of a batch if the batch function completes empty")
+    void shouldFailIfTheBatchFunctionCompletesEmpty() {
+        var batcher = batcher(items -> Mono.empty());
+
+        var signals = Flux.merge(batcher.submit("a").materialize(), batcher.submit("bb").materialize())
+                .collectList()
+                .block(TIMEOUT);
+
+        assertEquals(2, signals.size());
+        signals.forEach(signal -> assertEquals("expected 2 results but got none", signal.getThrowable().getMessage()));
+        batcher.dispose();
+    }
+
+    private static MicroBatcher<String, Integer> batcher(Function<List<String>, Mono<List<Integer>>> batchFunction) {
+        return new MicroBatcher<>("test.batch", 2, Duration.ofMillis(500), batchFunction, new SimpleMeterRegistry());
+    }
+
+}
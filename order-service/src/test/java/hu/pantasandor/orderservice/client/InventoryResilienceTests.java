@@ -0,0 +1,94 @@
+package hu.pantasandor.orderservice.client;
+
+import hu.pantasandor.orderservice.config.InventoryResilienceProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class InventoryResilienceTests {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(1);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final InventoryResilience inventoryResilience = new InventoryResilience(new InventoryResilienceProperties(
+            TIMEOUT, TIMEOUT, TIMEOUT,
+            new InventoryResilienceProperties.CircuitBreaker(50, 100, TIMEOUT, 100, 100, Duration.ofSeconds(5), 10),
+            new InventoryResilienceProperties.Bulkhead(10),
+            new InventoryResilienceProperties.Retry(1, Duration.ZERO),
+            new InventoryResilienceProperties.Hedge(true, Duration.ofMillis(50))),
+            meterRegistry);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    @DisplayName("Should take the first answer without hedging if it comes in time")
+    void shouldNotHedgeATimelyAnswer() {
+        var answer = inventoryResilience.hedgedCall(() -> answer(Mono.just("first"))).block(TIMEOUT);
+
+        assertEquals("first", answer);
+        assertEquals(1, calls.get());
+        assertEquals(0, hedged());
+    }
+
+    @Test
+    @DisplayName("Should take an empty answer as a success")
+    void shouldTakeAnEmptyAnswer() {
+        var answer = inventoryResilience.hedgedCall(() -> answer(Mono.<String>empty())).block(TIMEOUT);
+
+        assertNull(answer);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("Should take the answer of the hedge if the first call failed")
+    void shouldTakeTheHedgeIfTheFirstCallFailed() {
+        var answer = inventoryResilience.hedgedCall(() -> calls.get() == 0
+                        ? answer(Mono.error(new IllegalStateException("first")))
+                        : answer(Mono.just("second")))
+                .block(TIMEOUT);
+
+        assertEquals("second", answer);
+        assertEquals(2, calls.get());
+        assertEquals(1, hedged());
+    }
+
+    @Test
+    @DisplayName("Should pass on the last failure if both calls failed")
+    void shouldFailIfBothCallsFailed() {
+        var hedgedCall = inventoryResilience.hedgedCall(() -> answer(
+                Mono.<String>error(new IllegalStateException(calls.get() == 0 ? "first" : "second"))));
+
+        var e = assertThrows(IllegalStateException.class, () -> hedgedCall.block(TIMEOUT));
+        assertEquals("second", e.getMessage());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    @DisplayName("Should pass on a rejected request at once without hedging")
+    void shouldNotHedgeARejectedRequest() {
+        var hedgedCall = inventoryResilience.hedgedCall(() -> answer(Mono.<String>error(
+                WebClientResponseException.create(409, "Conflict", null, null, null))));
+
+        assertThrows(WebClientResponseException.Conflict.class, () -> hedgedCall.block(TIMEOUT));
+        assertEquals(1, calls.get());
+        assertEquals(0, hedged());
+    }
+
+    private <T> Mono<T> answer(Mono<T> answer) {
+        calls.incrementAndGet();
+        return answer;
+    }
+
+    private double hedged() {
+        return meterRegistry.get("order.inventory.hedged").counter().count();
+    }
+
+}
@@ -0,0 +1,9 @@
+package hu.pantasandor.productservice.cache;
+
+import hu.pantasandor.productservice.model.Product;
+
+/**
+ * A product together with the strong entity tag of its representation.
+ */
+public record CachedProduct(Product product, String eTag) {
+}
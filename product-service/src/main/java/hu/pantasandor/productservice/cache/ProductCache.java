@@ -0,0 +1,54 @@
+package hu.pantasandor.productservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import hu.pantasandor.productservice.config.ProductCacheProperties;
+import hu.pantasandor.productservice.model.Product;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of products by id. Products that do not exist are not cached.
+ */
+@Component
+public class ProductCache {
+
+    public static final String CACHE_NAME = "product.cache";
+
+    private final Cache<String, CachedProduct> products;
+
+    public ProductCache(ProductCacheProperties productCacheProperties, MeterRegistry meterRegistry) {
+        this.products = Caffeine.newBuilder()
+                .maximumSize(productCacheProperties.maximumSize())
+                .expireAfterWrite(productCacheProperties.expireAfterWrite())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, products, CACHE_NAME);
+    }
+
+    public Optional<CachedProduct> get(String id, Function<String, Optional<Product>> loader) {
+        return Optional.ofNullable(products.get(id, key -> loader.apply(key).map(ProductCache::toCachedProduct).orElse(null)));
+    }
+
+    public void invalidate(String id) {
+        products.invalidate(id);
+    }
+
+    private static CachedProduct toCachedProduct(Product product) {
+        var representation = String.join("\u0000",
+                product.getId(),
+                String.valueOf(product.getName()),
+                String.valueOf(product.getDescription()),
+                String.valueOf(product.getPrice()));
+        var eTag = "\"" + DigestUtils.md5DigestAsHex(representation.getBytes(StandardCharsets.UTF_8)) + "\"";
+
+        return new CachedProduct(product, eTag);
+    }
+
+}
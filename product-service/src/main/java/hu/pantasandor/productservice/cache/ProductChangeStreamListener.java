@@ -0,0 +1,33 @@
+package hu.pantasandor.productservice.cache;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.messaging.MessageListener;
+
+/**
+ * Invalidates the {@link ProductCache} entry of every product changed in MongoDB, including the changes made
+ * through other replicas.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class ProductChangeStreamListener implements MessageListener<ChangeStreamDocument<Document>, Document> {
+
+    private final ProductCache productCache;
+
+    @Override
+    public void onMessage(Message<ChangeStreamDocument<Document>, Document> message) {
+        var documentKey = message.getRaw().getDocumentKey();
+        if (documentKey == null) {
+            return;
+        }
+
+        var id = documentKey.get("_id");
+        var productId = id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+        productCache.invalidate(productId);
+        log.debug("invalidated product: {} {}", productId, message.getRaw().getOperationType());
+    }
+
+}
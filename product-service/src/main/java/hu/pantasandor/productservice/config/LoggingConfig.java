@@ -0,0 +1,26 @@
+package hu.pantasandor.productservice.config;
+
+import hu.pantasandor.commons.logging.LogSamplingFilter;
+import hu.pantasandor.commons.logging.LogSamplingProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * The logs of a request are sampled by the rates of {@code product.logging.sampling}.
+ */
+@Configuration
+public class LoggingConfig {
+
+    @Bean
+    public LogSamplingProperties logSamplingProperties(Environment environment) {
+        return Binder.get(environment).bindOrCreate("product.logging.sampling", LogSamplingProperties.class);
+    }
+
+    @Bean
+    public LogSamplingFilter logSamplingFilter(LogSamplingProperties logSamplingProperties) {
+        return new LogSamplingFilter(logSamplingProperties);
+    }
+
+}
@@ -0,0 +1,37 @@
+package hu.pantasandor.productservice.config;
+
+import hu.pantasandor.productservice.cache.ProductCache;
+import hu.pantasandor.productservice.cache.ProductChangeStreamListener;
+import hu.pantasandor.productservice.model.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+@Configuration
+@Slf4j
+public class ProductCacheConfig {
+
+    /**
+     * Follows the change stream of the product collection, which needs MongoDB to run as a replica set.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "product.cache.change-stream.enabled", havingValue = "true")
+    public MessageListenerContainer productChangeStreamContainer(MongoTemplate mongoTemplate, ProductCache productCache) {
+        var container = new DefaultMessageListenerContainer(mongoTemplate, new SimpleAsyncTaskExecutor("product-change-stream-"),
+                e -> log.error("product change stream failed, relying on cache expiry", e));
+        var request = ChangeStreamRequest.builder(new ProductChangeStreamListener(productCache))
+                .collection(mongoTemplate.getCollectionName(Product.class))
+                .build();
+        container.register(request, Document.class);
+
+        return container;
+    }
+
+}
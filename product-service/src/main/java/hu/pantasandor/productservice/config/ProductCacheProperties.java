@@ -0,0 +1,9 @@
+package hu.pantasandor.productservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "product.cache")
+public record ProductCacheProperties(long maximumSize, Duration expireAfterWrite) {
+}
@@ -0,0 +1,16 @@
+package hu.pantasandor.productservice.config;
+
+import hu.pantasandor.commons.thread.VirtualThreadConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Runs request handling, {@code @Async} and {@code @Scheduled} work on virtual threads when
+ * {@code product.threads.virtual.enabled} is set.
+ */
+@Configuration
+@ConditionalOnProperty(name = "product.threads.virtual.enabled", havingValue = "true")
+@Import(VirtualThreadConfiguration.class)
+public class VirtualThreadConfig {
+}
@@ -1,21 +1,30 @@
 package hu.pantasandor.productservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hu.pantasandor.productservice.dto.ProductPageResponse;
 import hu.pantasandor.productservice.dto.ProductRequest;
 import hu.pantasandor.productservice.dto.ProductResponse;
+import hu.pantasandor.productservice.error.InvalidContinuationTokenException;
 import hu.pantasandor.productservice.error.ProductNotFoundException;
 import hu.pantasandor.productservice.mapper.ProductMapper;
+import hu.pantasandor.productservice.model.Product;
 import hu.pantasandor.productservice.service.ProductService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
-import java.util.List;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 
 import static hu.pantasandor.productservice.controller.ProductController.API_URL;
 import static org.springframework.http.HttpStatus.CREATED;
 import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
 
 @RestController
 @RequestMapping(API_URL)
@@ -23,8 +32,12 @@ import static org.springframework.http.HttpStatus.OK;
 public class ProductController {
 
     public static final String API_URL = "/api/v1/product";
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int MAX_SEARCH_PAGE_SIZE = 100;
+    public static final int MAX_SEARCH_RESULTS = ProductService.MAX_SEARCH_RESULTS;
 
     private final ProductService productService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @ResponseStatus(CREATED)
@@ -35,21 +48,139 @@ public class ProductController {
         return ProductMapper.INSTANCE.doMap(productService.createProduct(name, description, price));
     }
 
+    /**
+     * Writes every product as a JSON array straight off the Mongo cursor, so memory use does not depend on the
+     * size of the catalog.
+     */
     @GetMapping
+    public ResponseEntity<StreamingResponseBody> getAllProducts() {
+        StreamingResponseBody body = outputStream -> {
+            try (var products = productService.streamAllProducts();
+                 var generator = objectMapper.createGenerator(outputStream)) {
+                generator.writeStartArray();
+                for (var iterator = products.iterator(); iterator.hasNext(); ) {
+                    generator.writeObject(ProductMapper.INSTANCE.doMap(iterator.next()));
+                }
+                generator.writeEndArray();
+            }
+        };
+
+        return ResponseEntity.ok().contentType(APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Writes every product as newline delimited JSON straight off the Mongo cursor.
+     */
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllProducts() {
+        StreamingResponseBody body = outputStream -> {
+            try (var products = productService.streamAllProducts();
+                 var generator = objectMapper.createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                for (var iterator = products.iterator(); iterator.hasNext(); ) {
+                    generator.writeObject(ProductMapper.INSTANCE.doMap(iterator.next()));
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Returns one page of products in id order. The continuation token of the response, if any, fetches the next
+     * page. The page size is capped at {@value MAX_PAGE_SIZE}.
+     */
+    @GetMapping(params = "size")
+    @ResponseStatus(OK)
+    public ProductPageResponse getProducts(@RequestParam int size,
+                                           @RequestParam(required = false) String continuationToken) {
+        size = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        var afterId = continuationToken == null ? null : decodeContinuationToken(continuationToken);
+        var products = productService.getProducts(afterId, size + 1);
+
+        var hasNext = products.size() > size;
+        var content = products.stream()
+                .limit(size)
+                .map(ProductMapper.INSTANCE::doMap)
+                .toList();
+        var nextContinuationToken = hasNext ? encodeContinuationToken(products.get(size - 1)) : null;
+
+        return new ProductPageResponse(content, nextContinuationToken);
+    }
+
+    /**
+     * Returns one page of the products matching the query, the most relevant first, by full-text search or, with
+     * {@code prefix=true}, by the beginnings of the words, as one searches while typing. The continuation token of
+     * the response, if any, fetches the next page. The page size is capped at {@value MAX_SEARCH_PAGE_SIZE} and the
+     * results at the first {@value MAX_SEARCH_RESULTS}, so that no request skips through a long list of matches.
+     */
+    @GetMapping("/search")
     @ResponseStatus(OK)
-    public List<ProductResponse> getAllProducts() {
-        return productService.getAllProducts().stream()
+    public ProductPageResponse searchProducts(@RequestParam String q,
+                                              @RequestParam(defaultValue = "false") boolean prefix,
+                                              @RequestParam(defaultValue = "20") int size,
+                                              @RequestParam(required = false) String continuationToken) {
+        size = Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE));
+        var offset = continuationToken == null ? 0 : decodeSearchContinuationToken(continuationToken);
+        var limit = Math.min(size, MAX_SEARCH_RESULTS - offset);
+        var products = productService.searchProducts(q, prefix, offset, limit + 1);
+
+        var hasNext = products.size() > limit && offset + limit < MAX_SEARCH_RESULTS;
+        var content = products.stream()
+                .limit(limit)
                 .map(ProductMapper.INSTANCE::doMap)
                 .toList();
+        var nextContinuationToken = hasNext ? encodeSearchContinuationToken(offset + limit) : null;
+
+        return new ProductPageResponse(content, nextContinuationToken);
     }
 
+    /**
+     * Returns the product with a strong ETag. A matching {@code If-None-Match} header is answered with 304.
+     */
     @GetMapping("/{id}")
     @ResponseStatus(OK)
     public ResponseEntity<ProductResponse> getProduct(@PathVariable String id) {
         return productService.getProduct(id)
-                .map(ProductMapper.INSTANCE::doMap)
-                .map(ResponseEntity::ok)
+                .map(cachedProduct -> ResponseEntity.ok()
+                        .eTag(cachedProduct.eTag())
+                        .body(ProductMapper.INSTANCE.doMap(cachedProduct.product())))
                 .orElseThrow(() -> new ProductNotFoundException(id));
     }
 
+    private static String encodeContinuationToken(Product product) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(product.getId().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeContinuationToken(String continuationToken) {
+        try {
+            var id = new String(Base64.getUrlDecoder().decode(continuationToken), StandardCharsets.UTF_8);
+            if (!ObjectId.isValid(id)) {
+                throw new InvalidContinuationTokenException(continuationToken);
+            }
+            return id;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidContinuationTokenException(continuationToken);
+        }
+    }
+
+    private static String encodeSearchContinuationToken(int offset) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.valueOf(offset).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int decodeSearchContinuationToken(String continuationToken) {
+        try {
+            var offset = Integer.parseInt(new String(Base64.getUrlDecoder().decode(continuationToken),
+                    StandardCharsets.UTF_8));
+            if (offset < 0 || offset >= MAX_SEARCH_RESULTS) {
+                throw new InvalidContinuationTokenException(continuationToken);
+            }
+            return offset;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidContinuationTokenException(continuationToken);
+        }
+    }
+
 }
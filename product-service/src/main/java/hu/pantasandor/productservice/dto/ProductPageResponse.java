@@ -0,0 +1,19 @@
+package hu.pantasandor.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductPageResponse {
+
+    private List<ProductResponse> content;
+    private String continuationToken;
+
+}
@@ -0,0 +1,10 @@
+package hu.pantasandor.productservice.error;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+public class InvalidContinuationTokenException extends ProductException {
+
+    public InvalidContinuationTokenException(String continuationToken) {
+        super(BAD_REQUEST, "/product/invalid-continuation-token", "Continuation token " + continuationToken + " is invalid");
+    }
+}
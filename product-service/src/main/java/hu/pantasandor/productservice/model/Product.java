@@ -8,6 +8,7 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 @Document(value = "product")
 @AllArgsConstructor
@@ -21,5 +22,8 @@ public class Product {
     private String name;
     private String description;
     private BigDecimal price;
+    // kept by ProductSearchTermsCallback, not part of the API
+    private List<String> nameTerms;
+    private List<String> searchTerms;
 
 }
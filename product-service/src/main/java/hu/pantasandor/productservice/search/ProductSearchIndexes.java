@@ -0,0 +1,86 @@
+package hu.pantasandor.productservice.search;
+
+import hu.pantasandor.productservice.model.Product;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Creates the indexes product search runs on, if missing, and adds the search terms to the products saved before
+ * there were any:
+ * <ul>
+ *     <li>a text index on the name and the description, a word of the name weighing as much as ten of the
+ *     description,</li>
+ *     <li>an index on the search terms, which serves the prefix search as ranges of the index,</li>
+ *     <li>an index on the name terms, which finds the products matching the prefix search in their name.</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchIndexes implements InitializingBean {
+
+    public static final String TEXT_INDEX = "ix_product_text";
+    public static final String SEARCH_TERMS_INDEX = "ix_product_search_terms";
+    public static final String NAME_TERMS_INDEX = "ix_product_name_terms";
+    public static final float NAME_WEIGHT = 10F;
+
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void afterPropertiesSet() {
+        var indexOperations = mongoTemplate.indexOps(Product.class);
+        indexOperations.ensureIndex(TextIndexDefinition.builder()
+                .named(TEXT_INDEX)
+                .onField("name", NAME_WEIGHT)
+                .onField("description")
+                .build());
+        indexOperations.ensureIndex(new Index("searchTerms", Sort.Direction.ASC)
+                .named(SEARCH_TERMS_INDEX));
+        indexOperations.ensureIndex(new Index("nameTerms", Sort.Direction.ASC)
+                .named(NAME_TERMS_INDEX));
+
+        var backfilled = backfillSearchTerms();
+        log.info("verified search indexes: {}", kv("backfilled", backfilled));
+    }
+
+    private int backfillSearchTerms() {
+        var query = new Query(Criteria.where("searchTerms").exists(false)).cursorBatchSize(BACKFILL_BATCH_SIZE);
+        var backfilled = 0;
+        try (var products = mongoTemplate.stream(query, Product.class)) {
+            var bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+            var pending = 0;
+            for (var iterator = products.iterator(); iterator.hasNext(); ) {
+                var product = iterator.next();
+                var update = Update.update("nameTerms", SearchTerms.of(product.getName()))
+                        .set("searchTerms", SearchTerms.of(product.getName(), product.getDescription()));
+                bulkOperations.updateOne(new Query(Criteria.where("id").is(product.getId())), update);
+                if (++pending == BACKFILL_BATCH_SIZE) {
+                    bulkOperations.execute();
+                    bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+                    backfilled += pending;
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                bulkOperations.execute();
+                backfilled += pending;
+            }
+        }
+        return backfilled;
+    }
+
+}
@@ -0,0 +1,21 @@
+package hu.pantasandor.productservice.search;
+
+import hu.pantasandor.productservice.model.Product;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the search terms of a product in step with its name and description on every save, whichever way the product
+ * is saved. The terms of the name are kept apart as well, prefix search ranks by them.
+ */
+@Component
+public class ProductSearchTermsCallback implements BeforeConvertCallback<Product> {
+
+    @Override
+    public Product onBeforeConvert(Product product, String collection) {
+        product.setNameTerms(SearchTerms.of(product.getName()));
+        product.setSearchTerms(SearchTerms.of(product.getName(), product.getDescription()));
+        return product;
+    }
+
+}
@@ -0,0 +1,36 @@
+package hu.pantasandor.productservice.search;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Splits text into the terms products are found by: the lower case words without diacritics, each once.
+ */
+public final class SearchTerms {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private SearchTerms() {
+    }
+
+    public static List<String> of(String... texts) {
+        return Arrays.stream(texts)
+                .filter(Objects::nonNull)
+                .flatMap(SearchTerms::terms)
+                .distinct()
+                .toList();
+    }
+
+    private static Stream<String> terms(String text) {
+        var normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.splitAsStream(normalized.toLowerCase(Locale.ROOT))
+                .filter(term -> !term.isEmpty());
+    }
+
+}
@@ -1,15 +1,31 @@
 package hu.pantasandor.productservice.service;
 
+import hu.pantasandor.productservice.cache.CachedProduct;
+import hu.pantasandor.productservice.cache.ProductCache;
 import hu.pantasandor.productservice.model.Product;
 import hu.pantasandor.productservice.repository.ProductRepository;
+import hu.pantasandor.productservice.search.SearchTerms;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.UnionWithOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
 
 @Service
 @Transactional
@@ -17,7 +33,12 @@ import java.util.Optional;
 @Slf4j
 public class ProductService {
 
+    public static final int MAX_SEARCH_RESULTS = 1000;
+    private static final int CURSOR_BATCH_SIZE = 500;
+
     private final ProductRepository productRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ProductCache productCache;
 
     public Product createProduct(String name, String description, BigDecimal price) {
         var product = Product.builder()
@@ -26,21 +47,115 @@ public class ProductService {
                 .price(price)
                 .build();
         product = productRepository.save(product);
-        log.info("createProduct: {}", product);
+        productCache.invalidate(product.getId());
+        log.info("createProduct: {}", kv("productId", product.getId()));
 
         return product;
     }
 
-    public List<Product> getAllProducts() {
-        var products = productRepository.findAll();
-        log.info("getAllProducts: {}", products);
+    /**
+     * Streams every product in id order straight off the Mongo cursor. The stream must be closed.
+     */
+    public Stream<Product> streamAllProducts() {
+        var query = new Query()
+                .with(Sort.by("id"))
+                .cursorBatchSize(CURSOR_BATCH_SIZE);
+        log.debug("streamAllProducts");
+
+        return mongoTemplate.stream(query, Product.class);
+    }
+
+    /**
+     * Returns at most {@code limit} products in id order, starting after the given id or from the first product if
+     * it is {@code null}.
+     */
+    public List<Product> getProducts(String afterId, int limit) {
+        var query = new Query()
+                .with(Sort.by("id"))
+                .limit(limit);
+        if (afterId != null) {
+            query.addCriteria(Criteria.where("id").gt(new ObjectId(afterId)));
+        }
+        var products = mongoTemplate.find(query, Product.class);
+        log.debug("getProducts: {} {}", kv("afterId", afterId), kv("found", products.size()));
+
+        return products;
+    }
+
+    /**
+     * Returns at most {@code limit} products matching the query, skipping the first {@code offset}, the most relevant
+     * first. Full-text search runs on the text index: it matches the products having any of the words in their name
+     * or description, stemmed, and ranks by the text score. Prefix search runs on the search terms index: it matches
+     * the products having a word starting with each of the words, and ranks the ones matching more of them in their
+     * name first. Either way the products matching equally well are in id order. Prefix search only ranks the first
+     * {@value MAX_SEARCH_RESULTS} products matching a word in their name the index yields, so a short prefix matching
+     * most of the catalog does not sort all of it; the products matching in their description only follow them.
+     */
+    public List<Product> searchProducts(String query, boolean prefix, int offset, int limit) {
+        var terms = SearchTerms.of(query);
+        var products = terms.isEmpty() ? List.<Product>of()
+                : prefix ? searchProductsByPrefix(terms, offset, limit)
+                : searchProductsByText(terms, offset, limit);
+        log.debug("searchProducts: {} {} {} {}",
+                kv("query", query), kv("prefix", prefix), kv("offset", offset), kv("found", products.size()));
 
         return products;
     }
 
-    public Optional<Product> getProduct(String id) {
-        var product = productRepository.findById(id);
-        log.info("getProduct: {} {}", id, product);
+    private List<Product> searchProductsByText(List<String> terms, int offset, int limit) {
+        var query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matchingAny(terms.toArray(String[]::new)))
+                .sortByScore()
+                .with(Sort.by("id"))
+                .skip(offset)
+                .limit(limit);
+
+        return mongoTemplate.find(query, Product.class);
+    }
+
+    private List<Product> searchProductsByPrefix(List<String> terms, int offset, int limit) {
+        // the terms are letters and digits only, nothing to escape
+        var matchesTerms = new Criteria().andOperator(terms.stream()
+                .map(term -> Criteria.where("searchTerms").regex("^" + term))
+                .toArray(Criteria[]::new));
+        var nameCriteria = terms.stream()
+                .map(term -> Criteria.where("nameTerms").regex("^" + term))
+                .toArray(Criteria[]::new);
+        var nameMatches = terms.stream()
+                .map(ProductService::nameMatch)
+                .toList();
+        var aggregation = Aggregation.newAggregation(
+                // the results are capped anyway, so only that many matches are read off the indexes and ranked,
+                // the ones matching in their name first, topped up with the ones matching in their description only
+                Aggregation.match(new Criteria().andOperator(matchesTerms, new Criteria().orOperator(nameCriteria))),
+                Aggregation.limit(MAX_SEARCH_RESULTS + 1),
+                context -> new Document("$addFields", new Document("score", new Document("$add", nameMatches))),
+                UnionWithOperation.unionWith(mongoTemplate.getCollectionName(Product.class)).pipeline(
+                        Aggregation.match(new Criteria().andOperator(matchesTerms, new Criteria().norOperator(nameCriteria))),
+                        Aggregation.limit(MAX_SEARCH_RESULTS + 1),
+                        context -> new Document("$addFields", new Document("score", 0))),
+                context -> new Document("$sort", new Document("score", -1).append("_id", 1)),
+                Aggregation.skip(offset),
+                Aggregation.limit(limit));
+
+        return mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(Product.class), Product.class)
+                .getMappedResults();
+    }
+
+    /**
+     * 1 if a word of the name starts with the term, 0 otherwise.
+     */
+    private static Document nameMatch(String term) {
+        var startsWithTerm = new Document("$regexMatch", new Document("input", "$$this").append("regex", "^" + term));
+        var nameTerms = new Document("$ifNull", List.of("$nameTerms", List.of()));
+        var anyNameTerm = new Document("$anyElementTrue",
+                List.of(new Document("$map", new Document("input", nameTerms).append("in", startsWithTerm))));
+
+        return new Document("$cond", List.of(anyNameTerm, 1, 0));
+    }
+
+    public Optional<CachedProduct> getProduct(String id) {
+        var product = productCache.get(id, productRepository::findById);
+        log.debug("getProduct: {} {}", kv("productId", id), kv("found", product.isPresent()));
 
         return product;
     }
@@ -1,5 +1,6 @@
 package hu.pantasandor.productservice;
 
+import hu.pantasandor.productservice.dto.ProductPageResponse;
 import hu.pantasandor.productservice.dto.ProductRequest;
 import hu.pantasandor.productservice.dto.ProductResponse;
 import hu.pantasandor.productservice.model.Product;
@@ -22,9 +23,11 @@ import java.util.List;
 import static hu.pantasandor.productservice.controller.ProductController.API_URL;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.Matchers.contains;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.HttpHeaders.ETAG;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.http.MediaType.APPLICATION_PROBLEM_JSON;
 
@@ -51,6 +54,7 @@ class ProductServiceApplicationTests {
     private static void setProperties(DynamicPropertyRegistry dynamicPropertyRegistry) {
         dynamicPropertyRegistry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
         dynamicPropertyRegistry.add("spring.cloud.discovery.enabled", () -> false);
+        dynamicPropertyRegistry.add("product.cache.change-stream.enabled", () -> true);
     }
 
     @BeforeEach
@@ -127,6 +131,112 @@ class ProductServiceApplicationTests {
                 .value(responses -> responses, contains(getProductResponse(id, PRODUCT_NAME, PRODUCT_DESCRIPTION, PRODUCT_PRICE)));
     }
 
+    @Test
+    @DisplayName("Should get products page by page")
+    public void shouldGetProductsPageByPage() {
+        productRepository.saveAll(List.of(
+                getProduct(PRODUCT_NAME, PRODUCT_DESCRIPTION, PRODUCT_PRICE),
+                getProduct(PRODUCT_NAME, PRODUCT_DESCRIPTION, PRODUCT_PRICE),
+                getProduct(PRODUCT_NAME, PRODUCT_DESCRIPTION, PRODUCT_PRICE)
+        ));
+        assertEquals(3, productRepository.findAll().size());
+
+        var firstPage = webClient.get()
+                .uri(API_URL + "?size=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ProductPageResponse.class)
+                .value(page -> page.getContent().size(), equalTo(2))
+                .value(ProductPageResponse::getContinuationToken, notNullValue())
+                .returnResult()
+                .getResponseBody();
+
+        webClient.get()
+                .uri(API_URL + "?size=2&continuationToken=" + firstPage.getContinuationToken())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ProductPageResponse.class)
+                .value(page -> page.getContent().size(), equalTo(1))
+                .value(ProductPageResponse::getContinuationToken, nullValue());
+    }
+
+    @Test
+    @DisplayName("Should search products")
+    public void shouldSearchProducts() {
+        productRepository.saveAll(List.of(
+                getProduct("Kitchen scale", "Weighs flour for the keyboard shop cafeteria", PRODUCT_PRICE),
+                getProduct("Mechanical keyboard", "Clicky switches", PRODUCT_PRICE),
+                getProduct("Mouse pad", "Fits any desk", PRODUCT_PRICE)
+        ));
+
+        webClient.get()
+                .uri(API_URL + "/search?q=Keyboards")
+                .exchange()
+                .expectHeader().contentType(APPLICATION_JSON)
+                .expectStatus().isOk()
+                .expectBody(ProductPageResponse.class)
+                .value(page -> page.getContent().stream().map(ProductResponse::getName).toList(),
+                        contains("Mechanical keyboard", "Kitchen scale"))
+                .value(ProductPageResponse::getContinuationToken, nullValue());
+    }
+
+    @Test
+    @DisplayName("Should search products by prefix")
+    public void shouldSearchProductsByPrefix() {
+        productRepository.saveAll(List.of(
+                getProduct("Café table", "Round top", PRODUCT_PRICE),
+                getProduct("Cable tie", "Keeps the café table tidy", PRODUCT_PRICE),
+                getProduct("Table lamp", "Warm light", PRODUCT_PRICE)
+        ));
+
+        webClient.get()
+                .uri(API_URL + "/search?q=caf ta&prefix=true")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ProductPageResponse.class)
+                .value(page -> page.getContent().stream().map(ProductResponse::getName).toList(),
+                        contains("Café table", "Cable tie"));
+    }
+
+    @Test
+    @DisplayName("Should search products page by page")
+    public void shouldSearchProductsPageByPage() {
+        productRepository.saveAll(List.of(
+                getProduct(PRODUCT_NAME, PRODUCT_DESCRIPTION, PRODUCT_PRICE),
+                getProduct(PRODUCT_NAME, PRODUCT_DESCRIPTION, PRODUCT_PRICE),
+                getProduct(PRODUCT_NAME, PRODUCT_DESCRIPTION, PRODUCT_PRICE)
+        ));
+
+        var firstPage = webClient.get()
+                .uri(API_URL + "/search?q=product&prefix=true&size=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ProductPageResponse.class)
+                .value(page -> page.getContent().size(), equalTo(2))
+                .value(ProductPageResponse::getContinuationToken, notNullValue())
+                .returnResult()
+                .getResponseBody();
+
+        webClient.get()
+                .uri(API_URL + "/search?q=product&prefix=true&size=2&continuationToken="
+                        + firstPage.getContinuationToken())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ProductPageResponse.class)
+                .value(page -> page.getContent().size(), equalTo(1))
+                .value(ProductPageResponse::getContinuationToken, nullValue());
+    }
+
+    @Test
+    @DisplayName("Should not search products with invalid continuation token")
+    public void shouldNotSearchProductsWithInvalidContinuationToken() {
+        webClient.get()
+                .uri(API_URL + "/search?q=product&continuationToken=invalid")
+                .exchange()
+                .expectHeader().contentType(APPLICATION_PROBLEM_JSON)
+                .expectStatus().isBadRequest();
+    }
+
     @Test
     @DisplayName("Should get product")
     public void shouldGetProduct() {
@@ -147,6 +257,27 @@ class ProductServiceApplicationTests {
                 .value(ProductResponse::getPrice, equalTo(PRODUCT_PRICE));
     }
 
+    @Test
+    @DisplayName("Should not get unmodified product")
+    public void shouldNotGetUnmodifiedProduct() {
+        var id = productRepository.save(getProduct(PRODUCT_NAME, PRODUCT_DESCRIPTION, PRODUCT_PRICE)).getId();
+
+        var eTag = webClient.get()
+                .uri(API_URL + "/" + id)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(ETAG)
+                .returnResult(ProductResponse.class)
+                .getResponseHeaders()
+                .getETag();
+
+        webClient.get()
+                .uri(API_URL + "/" + id)
+                .ifNoneMatch(eTag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
     @Test
     @DisplayName("Should not get product")
     public void shouldNotGetProduct() {